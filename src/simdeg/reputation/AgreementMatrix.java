@@ -1,6 +1,7 @@
 package simdeg.reputation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
@@ -14,6 +15,12 @@ class AgreementMatrix<W extends Worker> extends DynamicMatrix<W> {
 //    private static final Logger logger
 //        = Logger.getLogger(AgreementMatrix.class.getName());
 
+	/** Number of workers whose set always agreed with the largest set */
+	private int agreerCount = 0;
+
+	/** Contribution of each set (by identifier) to the number of agreers */
+	private int[] agreers = new int[16];
+
 	protected AgreementMatrix(Estimator estimatorBase) {
 		super(estimatorBase);
 	}
@@ -24,12 +31,12 @@ class AgreementMatrix<W extends Worker> extends DynamicMatrix<W> {
 		if (set1 == null || set2 == null)
 			return;
 		/* Update estimator */
-		getEstimator(set1, set2).setSample(1.0d);
+		getModifiableEstimator(set1, set2).setSample(1.0d);
+		estimatorUpdated(set1, set2);
 		/* Test the possibility of merging both sets */
 		if (set1 != set2
-				&& getEstimator(set1, set2).getSampleCount() > set1.size()
-						+ set2.size()
-				&& getEstimator(set1, set2).getSampleCount(0.0d) == 0.0d)
+				&& getSampleCount(set1, set2) > set1.size() + set2.size()
+				&& getSampleCount(set1, set2, 0.0d) == 0.0d)
 			merge(set1, set2);
 	}
 
@@ -46,7 +53,8 @@ class AgreementMatrix<W extends Worker> extends DynamicMatrix<W> {
 			set2 = getSet(otherWorker);
 		}
 		/* Update estimator */
-		getEstimator(set1, set2).setSample(0.0d);
+		getModifiableEstimator(set1, set2).setSample(0.0d);
+		estimatorUpdated(set1, set2);
 	}
 
 	protected final RV[][] getAgreements(Set<W> workers) {
@@ -60,14 +68,33 @@ class AgreementMatrix<W extends Worker> extends DynamicMatrix<W> {
 		return result;
 	}
 
+	/**
+	 * Gives the number of workers whose set always agreed with the largest
+	 * set (in constant time since it is part of the summary).
+	 */
 	protected final int countAgreerMajority() {
-		final Set<W> largest = getLargest();
-		int count = 0;
-		for (Set<W> set : getSets(getAll()))
-			if (getEstimator(set, largest).getSampleCount() > set.size()
-					&& getEstimator(set, largest).getSampleCount(0.0d) == 0.0d)
-				count += set.size();
-		return count;
+		refreshSummary();
+		return agreerCount;
+	}
+
+	protected void clearSummary() {
+		super.clearSummary();
+		agreerCount = 0;
+		Arrays.fill(agreers, 0);
+	}
+
+	protected void updateSummary(Set<W> largest, Set<W> set, int id,
+			boolean present) {
+		super.updateSummary(largest, set, id, present);
+		if (id >= agreers.length)
+			agreers = Arrays.copyOf(agreers, Math.max(id + 1,
+					2 * agreers.length));
+		agreerCount -= agreers[id];
+		agreers[id] = 0;
+		if (present && getSampleCount(set, largest) > set.size()
+				&& getSampleCount(set, largest, 0.0d) == 0.0d)
+			agreers[id] = set.size();
+		agreerCount += agreers[id];
 	}
 
 }
\ No newline at end of file
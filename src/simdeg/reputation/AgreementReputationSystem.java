@@ -32,6 +32,21 @@ public class AgreementReputationSystem<W extends Worker> extends
 	private final AgreementMatrix<W> agreement = new AgreementMatrix<W>(
 			new BetaEstimator());
 
+	/**
+	 * Estimated collusion likelihoods of the sets of observed groups that
+	 * were asked since the last modification of the agreement matrix.
+	 */
+	private final Map<Groups, RV> collusionLikelihoods = new HashMap<Groups, RV>();
+
+	/** Version of the agreement matrix for which the likelihoods are valid */
+	private long collusionLikelihoodsVersion = -1L;
+
+	/** Number of collusion likelihoods found in the cache */
+	private long cacheHits = 0L;
+
+	/** Number of collusion likelihoods that were computed */
+	private long cacheMisses = 0L;
+
 	/**
 	 * Gives participating workers.
 	 */
@@ -93,21 +108,57 @@ public class AgreementReputationSystem<W extends Worker> extends
 
 	/**
 	 * Returns the estimated likelihood that a given group of workers give the
-	 * same result. Since getAgreements return a truncated matrix, it is normal
-	 * that proba[0][i - 1] is used in this way.
+	 * same result. The estimation only depends on the observed groups to which
+	 * the workers belong, and is cached until the agreement matrix changes.
 	 */
 	public RV getCollusionLikelihood(Set<W> workers) {
+		if (collusionLikelihoodsVersion != agreement.getVersion()) {
+			collusionLikelihoods.clear();
+			collusionLikelihoodsVersion = agreement.getVersion();
+		}
+		final Groups groups = new Groups(agreement.getSets(workers));
+		RV rv = collusionLikelihoods.get(groups);
+		if (rv == null) {
+			cacheMisses++;
+			rv = computeCollusionLikelihood(workers);
+			collusionLikelihoods.put(groups, rv);
+		} else
+			cacheHits++;
+		return rv.clone();
+	}
+
+	/**
+	 * Gives the number of collusion likelihoods that were found in the cache.
+	 */
+	public long getCacheHits() {
+		return cacheHits;
+	}
+
+	/**
+	 * Gives the number of collusion likelihoods that had to be estimated.
+	 */
+	public long getCacheMisses() {
+		return cacheMisses;
+	}
+
+	/**
+	 * Estimates the likelihood that a given group of workers give the same
+	 * result. Since getAgreements return a truncated matrix, it is normal that
+	 * proba[0][i - 1] is used in this way.
+	 */
+	private RV computeCollusionLikelihood(Set<W> workers) {
 		final RV[][] proba = agreement.getAgreements(workers);
 		/* Logging */
-		if (logger.isLoggable(Level.FINEST))
+		if (logger.isLoggable(Level.FINEST)) {
 			logger.finest("Agreement probabilities are "
 					+ arraysToString(proba));
-		String size = "";
-		final List<Set<W>> sets = new ArrayList<Set<W>>(agreement
-				.getSets(workers));
-		for (Set<W> set : sets)
-			size += set.size() + ", ";
-		logger.finest("Size are " + size);
+			String size = "";
+			final List<Set<W>> sets = new ArrayList<Set<W>>(agreement
+					.getSets(workers));
+			for (Set<W> set : sets)
+				size += set.size() + ", ";
+			logger.finest("Size are " + size);
+		}
 		
 		/* Computation */
 		final RV rv = new Beta(1.0d);
@@ -124,8 +175,10 @@ public class AgreementReputationSystem<W extends Worker> extends
 
 		assert (rv.getMean() >= 0.0d) : "Negative estimate: " + rv.getMean();
 
-		logger.finer("Estimated collusion likelihood of " + workers.size()
-				+ " workers in " + proba.length + " observed groups is " + rv);
+		if (logger.isLoggable(Level.FINER))
+			logger.finer("Estimated collusion likelihood of "
+					+ workers.size() + " workers in " + proba.length
+					+ " observed groups is " + rv);
 		return rv;
 	}
 
@@ -197,4 +250,44 @@ public class AgreementReputationSystem<W extends Worker> extends
 				+ agreement.toString();
 	}
 
+	/**
+	 * Set of observed groups identified by their identity (the observed groups
+	 * are replaced whenever they change).
+	 */
+	private static class Groups {
+
+		private final Object[] groups;
+
+		private final int hash;
+
+		private Groups(Collection<?> groups) {
+			this.groups = groups.toArray();
+			int hash = 0;
+			for (Object group : this.groups)
+				hash += System.identityHashCode(group);
+			this.hash = hash;
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Groups))
+				return false;
+			final Groups other = (Groups) obj;
+			if (groups.length != other.groups.length || hash != other.hash)
+				return false;
+			for (Object group : groups) {
+				int i = 0;
+				while (i < other.groups.length && other.groups[i] != group)
+					i++;
+				if (i == other.groups.length)
+					return false;
+			}
+			return true;
+		}
+
+	}
+
 }
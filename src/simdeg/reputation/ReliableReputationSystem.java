@@ -1,8 +1,10 @@
 package simdeg.reputation;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -10,6 +12,7 @@ import java.util.logging.Logger;
 
 import simdeg.util.BetaEstimator;
 import simdeg.util.Estimator;
+import simdeg.util.EstimatorStore;
 import simdeg.util.RV;
 
 /**
@@ -25,8 +28,12 @@ public class ReliableReputationSystem<W extends Worker> implements BasicReputati
     protected Map<Job, Map<Result, Set<W>>> workersByResults
         = new HashMap<Job, Map<Result, Set<W>>>();
 
-    /** Estimates of the reliability */
-    private Map<W, Estimator> reliability = new HashMap<W, Estimator>();
+    /** Estimates of the reliability (with packed parameters) */
+    private final EstimatorStore reliability = new BetaEstimator()
+            .createStore();
+
+    /** Identifier in the store of the estimate of each worker */
+    private Map<W, Integer> ids = new HashMap<W, Integer>();
     
     /** Set of workers we are manipulating */
     protected Set<W> workers = new HashSet<W>();
@@ -36,8 +43,11 @@ public class ReliableReputationSystem<W extends Worker> implements BasicReputati
 	 */
 	public void addAllWorkers(Set<? extends W> workers) {
         this.workers.addAll(workers);
-		for (W worker : workers)
-			reliability.put(worker, new BetaEstimator());
+		for (W worker : workers) {
+			if (ids.containsKey(worker))
+				reliability.remove(ids.get(worker));
+			ids.put(worker, reliability.add());
+		}
 	}
 
 	/**
@@ -46,7 +56,8 @@ public class ReliableReputationSystem<W extends Worker> implements BasicReputati
 	public void removeAllWorkers(Set<? extends W> workers) {
         this.workers.removeAll(workers);
 		for (W worker : workers)
-			reliability.remove(worker);
+			if (ids.containsKey(worker))
+				reliability.remove(ids.remove(worker));
 	}
 
 	/**
@@ -65,10 +76,10 @@ public class ReliableReputationSystem<W extends Worker> implements BasicReputati
 		if (workersByResult.get(result).size() == 2) {
             for (W successfulWorker : workersByResult.get(result))
                 if (this.workers.contains(successfulWorker))
-                    reliability.get(successfulWorker).setSample(1.0d);
+                    reliability.setSample(ids.get(successfulWorker), 1.0d);
         } else if (workersByResult.get(result).size() > 2)
             if (this.workers.contains(worker))
-                reliability.get(worker).setSample(1.0d);
+                reliability.setSample(ids.get(worker), 1.0d);
 	}
 
 	/**
@@ -87,27 +98,31 @@ public class ReliableReputationSystem<W extends Worker> implements BasicReputati
 					&& otherResult != result)
                 for (W worker : workersByResult.get(otherResult))
                     if (this.workers.contains(worker))
-                        reliability.get(worker).setSample(0.0d);
+                        reliability.setSample(ids.get(worker), 0.0d);
 
         /* Clean structure */
         workersByResults.remove(job);
 	}
 
 	/**
-	 * Returns the estimated reliability of the worker.
+	 * Returns the estimated reliability of the worker (a copy that is not
+	 * affected by later updates or by the removal of the worker).
 	 */
 	public RV getReliability(W worker) {
-		if (!reliability.containsKey(worker))
+		if (!ids.containsKey(worker))
 			throw new NoSuchElementException("Inexistant worker");
-		logger.finer("Reliability of worker " + worker + " is "
-				+ reliability.get(worker));
-		return reliability.get(worker);
+		final Estimator estimator = reliability.get(ids.get(worker)).clone();
+		logger.finer("Reliability of worker " + worker + " is " + estimator);
+		return estimator;
 	}
 
     public String toString() {
+        final List<Estimator> estimators = new ArrayList<Estimator>();
+        for (int id : ids.values())
+            estimators.add(reliability.get(id));
         return "Reliability-based reputation system:\n"
             + Arrays.toString(workers.toArray()) + " = "
-            + Arrays.toString(reliability.values().toArray()) + '\n';
+            + Arrays.toString(estimators.toArray()) + '\n';
     }
 
 }
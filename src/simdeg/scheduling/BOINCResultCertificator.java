@@ -1,11 +1,8 @@
 package simdeg.scheduling;
 
-import java.util.Map;
-import java.util.Set;
 import java.util.logging.Logger;
 
 import simdeg.reputation.Result;
-import simdeg.reputation.Worker;
 
 /**
  * Quorum-based implementation of the result selection process which select the
@@ -36,31 +33,21 @@ public class BOINCResultCertificator extends ResultCertificator {
 		assert (!votingPool.isEmpty()) : "No job given to the result certificator";
 		assert (votingPool.isComplete()) : "Job still processing";
 
-		/*
-		 * Get workers into a convenient structure by separating them by their
-		 * results
-		 */
-		Map<R, Set<Worker>> map = votingPool.getJobsByResult();
-
-		/* Find the job that have the majority */
-		R majorityResult = null;
-		for (R result : map.keySet())
-			if (majorityResult == null
-					|| map.get(result).size() > map.get(majorityResult).size())
-				majorityResult = result;
+		/* Find the job that have the majority (tallied as votes arrive) */
+		final R majorityResult = votingPool.getMajorityResult();
+		final int majoritySize = votingPool.getMajorityVotes();
 
 		/* Test if the quorum or the maximum duplication parameter is achieved */
-		if (map.get(majorityResult).size() < quorum
-				&& votingPool.size() < maxDuplication) {
+		if (majoritySize < quorum && votingPool.size() < maxDuplication) {
 			logger.fine("No result has reached the quorum (the current "
 					+ "best is " + majorityResult + " with a majority of "
-					+ map.get(majorityResult).size() + " workers)");
+					+ majoritySize + " workers)");
 			return null;
 		}
 		logger.fine("Result " + majorityResult
-				+ " is certified with a majority of "
-				+ map.get(majorityResult).size() + " workers (>" + quorum
-				+ ") over " + votingPool.size() + " results");
+				+ " is certified with a majority of " + majoritySize
+				+ " workers (>" + quorum + ") over " + votingPool.size()
+				+ " results");
 		return majorityResult;
 	}
 
@@ -34,9 +34,9 @@ public class BOINCScheduler<J extends Job, R extends Result> extends
 	 */
 	protected J pullJobFromSets(Worker worker) {
 		/* If there are jobs that need more duplication to achieve quorum */
-		for (J activeJob : activeJobs)
-			if (!votingPools.get(activeJob).containsKey(worker))
-				return activeJob;
+		final J activeJob = pullJobFromActiveJobs(worker);
+		if (activeJob != null)
+			return activeJob;
 		/* If there are jobs that need to be duplicated until the minimum amount */
 		for (J processingJob : processingJobs) {
 			final VotingPool<R> votingPool = votingPools.get(processingJob);
@@ -1,12 +1,19 @@
 package simdeg.scheduling;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import simdeg.reputation.AgreementReputationSystem;
+import simdeg.reputation.ReputationSystem;
 import simdeg.reputation.Result;
 import simdeg.reputation.Worker;
 
@@ -30,6 +37,17 @@ public class CollusionResultCertificator extends ResultCertificator {
 
 	private static final double MAX_STANDARD_DEVIATION = 0.1d;
 
+	/** Tells whether the probabilities are memoized during a certification */
+	private final boolean memoized;
+
+	public CollusionResultCertificator() {
+		this(true);
+	}
+
+	CollusionResultCertificator(boolean memoized) {
+		this.memoized = memoized;
+	}
+
 	@Override
 	<R extends Result> R certifyResult(VotingPool<R> votingPool) {
 		assert (!votingPool.isEmpty()) : "No job given to the result certificator";
@@ -83,9 +101,13 @@ public class CollusionResultCertificator extends ResultCertificator {
 			VotingPool<R> votingPool) {
 		/*
 		 * Get workers into a convenient structure by separating them by their
-		 * results.
+		 * results (only the results received at least twice are considered).
 		 */
-		final Map<R, Set<Worker>> map = votingPool.getJobsByResult();
+		final Map<R, Set<Worker>> map = new HashMap<R, Set<Worker>>();
+		for (int group = 0; group < votingPool.getResultsCount(); group++)
+			if (votingPool.getVotes(group) >= 2)
+				map.put(votingPool.getResult(group), votingPool
+						.getWorkers(group));
 
 		final Map<R, RV> correctProba = new HashMap<R, RV>();
 
@@ -136,215 +158,363 @@ public class CollusionResultCertificator extends ResultCertificator {
 		}
 
 		/*
-		 * Select the results that were received at least twice.
+		 * Select the results that were received at least twice (in their order
+		 * of arrival).
 		 */
-		final Set<R> results = new HashSet<R>();
-		final Set<Set<Worker>> resultGroups = new HashSet<Set<Worker>>();
-		for (R result : map.keySet())
-			if (map.get(result).size() >= 2) {
-				results.add(result);
-				resultGroups.add(map.get(result));
+		final List<R> results = new ArrayList<R>();
+		final List<Set<Worker>> resultGroups = new ArrayList<Set<Worker>>();
+		for (int group = 0; group < votingPool.getResultsCount(); group++)
+			if (votingPool.getVotes(group) >= 2) {
+				results.add(votingPool.getResult(group));
+				resultGroups.add(map.get(votingPool.getResult(group)));
 			}
 
+		/*
+		 * Compute the probabilities that the workers of each result group are
+		 * colluding (but not colluding with any other colluder).
+		 */
+		final CollusionEvents events = new CollusionEvents(votingPool.size());
+		final RV[] distinct = new RV[resultGroups.size()];
+		for (int i = 0; i < distinct.length; i++)
+			distinct[i] = events.distinctProbability(i, resultGroups);
+
 		/*
 		 * Compute the probabilities that the workers of some result groups are
 		 * all colluding (but not colluding with any other colluder).
 		 */
-		final RV allColluding = new DistinctCollusionsEvent(resultGroups,
-				resultGroups).inter();
-		final Map<R, RV> allOtherColluding = new HashMap<R, RV>();
-		for (R result : results) {
-			final Set<Set<Worker>> allOthers = new HashSet<Set<Worker>>(
-					resultGroups);
-			allOthers.remove(map.get(result));
-			allOtherColluding.put(result, new DistinctCollusionsEvent(
-					allOthers, resultGroups).inter());
-		}
+		final RV allColluding = inter(distinct, -1);
+		final RV[] allOtherColluding = new RV[distinct.length];
+		for (int i = 0; i < distinct.length; i++)
+			allOtherColluding[i] = inter(distinct, i);
 
 		/*
 		 * Compute the probability that the current result groups are obtained.
 		 */
 		RV config = allColluding;
-		for (R result : results)
-			config = config.add(allOtherColluding.get(result)).subtract(
-					allColluding);
+		for (int i = 0; i < distinct.length; i++)
+			config = config.add(allOtherColluding[i]).subtract(allColluding);
 		logger.finer("The probability that this voting pool occurs is "
 				+ config);
 
 		/*
 		 * Aggregate the intermediate computation for the final results.
 		 */
-		for (R result : results) {
-			final RV proba = allOtherColluding.get(result).subtract(
-					allColluding);
-			logger.finer("The probability that result " + result
+		for (int i = 0; i < distinct.length; i++) {
+			final RV proba = allOtherColluding[i].subtract(allColluding);
+			logger.finer("The probability that result " + results.get(i)
 					+ " is correct and that the voting" + " pool occurs is "
 					+ proba);
-			correctProba.put(result, proba.divide(config.getMean()));
+			correctProba.put(results.get(i), proba.divide(config.getMean()));
 		}
 
 		return correctProba;
 	}
 
 	/**
-	 * Represents the event that several independent collusion occurs.
+	 * Computes the probability that several independent distinct collusions
+	 * occur (the one of the given rank is excluded).
+	 */
+	private RV inter(RV[] distinct, int excluded) {
+		RV rv = new RV(1.0d, 0.0d);
+		for (int i = distinct.length - 1; i >= 0; i--)
+			if (i != excluded)
+				rv = distinct[i].mult(rv);
+		return rv;
+	}
+
+	/**
+	 * Collusion events of a single certification. The workers involved are
+	 * ranked and each event, that specifies that some workers collude all
+	 * together, is the bitmask of these workers. All the masks are stored in
+	 * a single array used as a stack, and a union of events is a contiguous
+	 * range of masks, so that the inclusion-exclusion recursion only writes
+	 * masks in place. The likelihoods and the unions are memoized by the
+	 * content of their range (the order of the events is part of the key
+	 * because the truncation of the inclusion-exclusion formula depends on
+	 * it).
 	 */
-	private class DistinctCollusionsEvent extends
-			HashSet<DistinctCollusionEvent> {
+	private class CollusionEvents {
+
+		/** Number of longs in each mask */
+		private int words;
+
+		/** Workers by rank */
+		private final List<Worker> workers = new ArrayList<Worker>();
+
+		/** Rank of each worker */
+		private final Map<Worker, Integer> ranks = new HashMap<Worker, Integer>();
+
+		/** Stack of masks */
+		private long[] masks;
+
+		/** First free position in the stack */
+		private int top = 0;
+
+		/** Estimated likelihood of each collusion event */
+		private final Map<MaskRange, RV> likelihoods = new HashMap<MaskRange, RV>();
+
+		/** Probability of each union of collusion events */
+		private final Map<MaskRange, RV> unions = new HashMap<MaskRange, RV>();
 
-		private static final long serialVersionUID = 1L;
+		/** Key used for looking up the memoized probabilities */
+		private final MaskRange probe = new MaskRange();
 
-		private DistinctCollusionsEvent(
-				Collection<DistinctCollusionEvent> events) {
-			addAll(events);
+		private CollusionEvents(int workersCount) {
+			/* Usually, each observed group brings one additional worker */
+			words = Math.max(1, (2 * workersCount + 63) / 64);
+			masks = new long[16 * words];
 		}
 
 		/**
-		 * Builds the event given that the set of groups that collude
-		 * independently of the groups in the second set.
+		 * Ranks a worker, widening the masks when they are too short. Since
+		 * the masks of the stack are then moved, no offset must be held by
+		 * the caller.
 		 */
-		private DistinctCollusionsEvent(
-				Collection<? extends Collection<Worker>> Q,
-				Collection<? extends Collection<Worker>> P) {
-			for (Collection<Worker> q : Q) {
-				/* Put all relevant workers in the same set */
-				final Set<Worker> workers = new HashSet<Worker>();
-				for (Collection<Worker> p : P) {
-					if (p == q)
-						continue;
-					workers.addAll(p);
-				}
-				/* Get the corresponding estimated groups of workers */
-				final Collection<? extends Collection<Worker>> groups = reputationSystem
-						.getGroups(workers);
-				assert (groups.size() <= workers.size());
-				logger.finest("Add a collusion event involving at least "
-						+ groups.size() + " observed groups");
-				/* Build each union event */
-				final Set<CollusionEvent> events = new HashSet<CollusionEvent>();
-				for (Collection<Worker> p : groups) {
-					final CollusionEvent collusionEvent = new CollusionEvent(q);
-					collusionEvent.add(p.iterator().next());
-					events.add(collusionEvent);
-				}
-				/* Build the resulting event that a distinct collusion occurs */
-				final DistinctCollusionEvent distinctCollusionEvent = new DistinctCollusionEvent(
-						new CollusionEvent(q), events);
-				assert (distinctCollusionEvent.size() == groups.size());
-				add(distinctCollusionEvent);
-			}
-			assert (size() == Q.size());
+		private void rank(Worker worker) {
+			if (ranks.containsKey(worker))
+				return;
+			final int rank = workers.size();
+			if (rank >= 64 * words)
+				widen(2 * words);
+			ranks.put(worker, rank);
+			workers.add(worker);
 		}
 
 		/**
-		 * Computes the probability of the intersection of the distinct
-		 * collusion events.
+		 * Changes the number of longs in each mask and moves the masks of the
+		 * stack accordingly. The memoized probabilities are dropped since
+		 * their keys depend on the width of the masks.
 		 */
-		private RV inter() {
-			if (isEmpty())
-				return new RV(1.0d, 0.0d);
-			final DistinctCollusionEvent head = iterator().next();
-			final RV event = new RV(reputationSystem
-					.getCollusionLikelihood(head.current));
-			final RV union = head.union();
-			final RV firstRV = event.subtract(union);
-			final DistinctCollusionsEvent tail = new DistinctCollusionsEvent(
-					this);
-			tail.remove(head);
-			return firstRV.mult(tail.inter());
+		private void widen(int width) {
+			final int count = top / words;
+			final long[] larger = new long[Math.max(16, 2 * count) * width];
+			for (int i = 0; i < count; i++)
+				System.arraycopy(masks, i * words, larger, i * width, words);
+			masks = larger;
+			top = count * width;
+			words = width;
+			likelihoods.clear();
+			unions.clear();
 		}
 
-	}
-
-	/**
-	 * Represents the probability that a specific collusion occurs independently
-	 * of the other result groups.
-	 */
-	private class DistinctCollusionEvent extends CollusionsUnionEvent {
-
-		private static final long serialVersionUID = 1L;
-
 		/**
-		 * The current collusion event that occurs.
+		 * Reserves an empty mask on the top of the stack.
 		 */
-		private final CollusionEvent current;
-
-		private DistinctCollusionEvent(CollusionEvent event,
-				Collection<CollusionEvent> events) {
-			this.current = event;
-			addAll(events);
+		private int push() {
+			if (top + words > masks.length) {
+				final long[] larger = new long[2 * masks.length];
+				System.arraycopy(masks, 0, larger, 0, top);
+				masks = larger;
+			}
+			final int offset = top;
+			top += words;
+			for (int i = offset; i < top; i++)
+				masks[i] = 0L;
+			return offset;
 		}
 
-		public boolean equals(Object obj) {
-			if (obj == this)
-				return true;
-			if (!(obj instanceof DistinctCollusionEvent))
-				return false;
-			final DistinctCollusionEvent event = (DistinctCollusionEvent) obj;
-			return event.current == current;
+		/**
+		 * Adds a worker, which must have been ranked, to a mask.
+		 */
+		private void add(int offset, Worker worker) {
+			final Integer rank = ranks.get(worker);
+			if (rank == null)
+				throw new IllegalStateException("Worker not ranked");
+			masks[offset + (rank >>> 6)] |= 1L << rank;
 		}
 
-	}
-
-	/**
-	 * Represents the probability that a union of several collusions occurs.
-	 */
-	private class CollusionsUnionEvent extends HashSet<CollusionEvent> {
-
-		private static final long serialVersionUID = 1L;
-
-		private CollusionsUnionEvent() {
+		/**
+		 * Tests whether one of the masks starting at the given position is
+		 * equal to the mask at the given offset.
+		 */
+		private boolean contains(int start, int count, int offset) {
+			for (int i = 0; i < count; i++) {
+				int word = 0;
+				while (word < words
+						&& masks[start + i * words + word] == masks[offset
+								+ word])
+					word++;
+				if (word == words)
+					return true;
+			}
+			return false;
 		}
 
-		private CollusionsUnionEvent(Collection<CollusionEvent> events) {
-			addAll(events);
+		/**
+		 * Gives the estimated likelihood that the workers of an event collude
+		 * together.
+		 */
+		private RV likelihood(int offset) {
+			if (memoized) {
+				probe.set(masks, offset, words);
+				final RV rv = likelihoods.get(probe);
+				if (rv != null)
+					return rv;
+			}
+			final Set<Worker> set = new HashSet<Worker>();
+			for (int rank = 0; rank < workers.size(); rank++)
+				if ((masks[offset + (rank >>> 6)] & 1L << rank) != 0L)
+					set.add(workers.get(rank));
+			final RV rv = new RV(reputationSystem.getCollusionLikelihood(set));
+			if (memoized) {
+				probe.set(masks, offset, words);
+				likelihoods.put(new MaskRange(probe), rv);
+			}
+			return rv;
 		}
 
 		/**
-		 * Computes the probability that the union of the related collusion
-		 * events happens.
+		 * Computes the probability that the union of the events stored from
+		 * the given position happens.
 		 */
-		protected RV union() {
-			if (isEmpty())
+		private RV union(int offset, int count) {
+			if (count == 0)
 				return new RV(0.0d, 0.0d);
-			logger.finest("Union of " + size() + " events");
-			final CollusionEvent head = iterator().next();
-			final RV firstRV = new RV(reputationSystem
-					.getCollusionLikelihood(head));
-			final CollusionsUnionEvent tail = new CollusionsUnionEvent(this);
-			tail.remove(head);
+			if (memoized) {
+				probe.set(masks, offset, count * words);
+				final RV rv = unions.get(probe);
+				if (rv != null)
+					return rv;
+			}
+			logger.finest("Union of " + count + " events");
+			final RV firstRV = likelihood(offset);
+			final int tail = offset + words;
+			final RV rv;
 			if (firstRV.getMean() + Math.sqrt(firstRV.getVariance()) < ZERO_PROBA)
-				return tail.union();
-			if (tail.size() > MAX_UNION)
-				return firstRV.add(tail.union());
-			return firstRV.add(tail.union()).subtract(tail.inter(head));
+				rv = union(tail, count - 1);
+			else if (count - 1 > MAX_UNION)
+				rv = firstRV.add(union(tail, count - 1));
+			else
+				rv = firstRV.add(union(tail, count - 1)).subtract(
+						inter(tail, count - 1, offset));
+			if (memoized) {
+				probe.set(masks, offset, count * words);
+				unions.put(new MaskRange(probe), rv);
+			}
+			return rv;
 		}
 
 		/**
 		 * Computes the intersection of a union and a given event.
 		 */
-		private RV inter(CollusionEvent e) {
-			final CollusionsUnionEvent result = new CollusionsUnionEvent();
-			for (CollusionEvent event : this) {
-				final CollusionEvent elem = new CollusionEvent(event);
-				elem.addAll(e);
-				result.add(elem);
+		private RV inter(int offset, int count, int event) {
+			final int start = top;
+			int intersections = 0;
+			for (int i = 0; i < count; i++) {
+				final int intersection = push();
+				for (int word = 0; word < words; word++)
+					masks[intersection + word] = masks[offset + i * words
+							+ word]
+							| masks[event + word];
+				if (contains(start, intersections, intersection))
+					top = intersection;
+				else
+					intersections++;
 			}
-			return result.union();
+			final RV rv = union(start, intersections);
+			top = start;
+			return rv;
+		}
+
+		/**
+		 * Computes the probability that the workers of a result group collude
+		 * together but not with any other result group.
+		 */
+		private RV distinctProbability(int index,
+				List<? extends Collection<Worker>> resultGroups) {
+			final Collection<Worker> q = resultGroups.get(index);
+			/* Put all relevant workers in the same set */
+			final Set<Worker> others = new HashSet<Worker>();
+			for (int i = 0; i < resultGroups.size(); i++)
+				if (i != index)
+					others.addAll(resultGroups.get(i));
+			/* Get the corresponding estimated groups of workers */
+			final Collection<? extends Collection<Worker>> groups = reputationSystem
+					.getGroups(others);
+			assert (groups.size() <= others.size());
+			logger.finest("Add a collusion event involving at least "
+					+ groups.size() + " observed groups");
+			/* Rank the workers before any mask is built */
+			for (Worker worker : q)
+				rank(worker);
+			for (Collection<Worker> p : groups)
+				rank(p.iterator().next());
+			/* Build the current event and each union event */
+			final int start = top;
+			final int current = push();
+			for (Worker worker : q)
+				add(current, worker);
+			final int first = top;
+			int count = 0;
+			for (Collection<Worker> p : groups) {
+				final int event = push();
+				System.arraycopy(masks, current, masks, event, words);
+				add(event, p.iterator().next());
+				if (contains(first, count, event))
+					top = event;
+				else
+					count++;
+			}
+			assert (count == groups.size());
+			/* The current collusion occurs but none of the union */
+			final RV rv = likelihood(current).subtract(union(first, count));
+			top = start;
+			return rv;
 		}
 
 	}
 
 	/**
-	 * Represents the event that specifies that some workers collude all
-	 * together.
+	 * Range of masks used as a key for the memoized probabilities.
 	 */
-	private class CollusionEvent extends HashSet<Worker> {
+	private static class MaskRange {
 
-		private static final long serialVersionUID = 1L;
+		private long[] masks;
 
-		private CollusionEvent(Collection<Worker> workers) {
-			addAll(workers);
+		private int offset;
+
+		private int length;
+
+		private int hash;
+
+		private MaskRange() {
+		}
+
+		/**
+		 * Copies the masks of a range.
+		 */
+		private MaskRange(MaskRange range) {
+			this.masks = new long[range.length];
+			System.arraycopy(range.masks, range.offset, masks, 0, range.length);
+			this.offset = 0;
+			this.length = range.length;
+			this.hash = range.hash;
+		}
+
+		private void set(long[] masks, int offset, int length) {
+			this.masks = masks;
+			this.offset = offset;
+			this.length = length;
+			int hash = 1;
+			for (int i = offset; i < offset + length; i++)
+				hash = 31 * hash + (int) (masks[i] ^ (masks[i] >>> 32));
+			this.hash = hash;
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof MaskRange))
+				return false;
+			final MaskRange range = (MaskRange) obj;
+			if (length != range.length || hash != range.hash)
+				return false;
+			for (int i = 0; i < length; i++)
+				if (masks[offset + i] != range.masks[range.offset + i])
+					return false;
+			return true;
 		}
 
 	}
@@ -410,4 +580,70 @@ public class CollusionResultCertificator extends ResultCertificator {
 
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Compares the time needed for estimating the correctness probabilities
+	 * with and without memoization on voting pools of 5 to 20 result groups of
+	 * two workers each. The number of pools of each size may be given as
+	 * argument (5 by default).
+	 */
+	public static void main(String[] args) {
+		final int poolsCount = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		final Logger rootLogger = Logger.getLogger("");
+		rootLogger.setLevel(Level.OFF);
+
+		/* Workers are only observed through the reputation system */
+		final List<Worker> workers = new ArrayList<Worker>();
+		for (int i = 0; i < 64; i++)
+			workers.add(new Worker() {
+			});
+		final ReputationSystem<Worker> reputationSystem = new AgreementReputationSystem<Worker>();
+		reputationSystem.addAllWorkers(new HashSet<Worker>(workers));
+		workers.removeAll(reputationSystem.getLargestGroup());
+		final CollusionResultCertificator plain = new CollusionResultCertificator(
+				false);
+		plain.setReputationSystem(reputationSystem);
+		final CollusionResultCertificator memoized = new CollusionResultCertificator(
+				true);
+		memoized.setReputationSystem(reputationSystem);
+
+		final Random random = new Random(0L);
+		for (int groups = 5; groups <= 20; groups += 5) {
+			/* Generate the voting pools */
+			final List<VotingPool<Result>> pools = new ArrayList<VotingPool<Result>>();
+			for (int i = 0; i < poolsCount; i++) {
+				final VotingPool<Result> pool = new VotingPool<Result>(null);
+				Collections.shuffle(workers, random);
+				for (int j = 0; j < groups; j++) {
+					final Result result = new Result() {
+					};
+					pool.put(workers.get(2 * j), result);
+					pool.put(workers.get(2 * j + 1), result);
+				}
+				pools.add(pool);
+			}
+
+			/* Estimate the probabilities with both certificators */
+			long start = System.currentTimeMillis();
+			final List<Map<Result, RV>> plainProba = new ArrayList<Map<Result, RV>>();
+			for (VotingPool<Result> pool : pools)
+				plainProba.add(plain.correctProbability(pool));
+			final long plainTime = System.currentTimeMillis() - start;
+			start = System.currentTimeMillis();
+			final List<Map<Result, RV>> memoizedProba = new ArrayList<Map<Result, RV>>();
+			for (VotingPool<Result> pool : pools)
+				memoizedProba.add(memoized.correctProbability(pool));
+			final long memoizedTime = System.currentTimeMillis() - start;
+
+			for (int i = 0; i < poolsCount; i++)
+				for (Result result : plainProba.get(i).keySet())
+					if (plainProba.get(i).get(result).getMean() != memoizedProba
+							.get(i).get(result).getMean())
+						System.out.println("Both certificators disagree");
+			System.out.println(groups + " result groups: " + plainTime
+					+ " ms without memoization, " + memoizedTime
+					+ " ms with memoization (speedup: " + (double) plainTime
+					/ Math.max(memoizedTime, 1L) + ")");
+		}
+	}
+
+}
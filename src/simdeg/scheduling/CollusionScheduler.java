@@ -22,9 +22,9 @@ public class CollusionScheduler<J extends Job, R extends Result> extends
 	 */
 	protected J pullJobFromSets(Worker worker) {
 		/* If there are jobs that need more duplication to achieve quorum */
-		for (J activeJob : activeJobs)
-			if (!votingPools.get(activeJob).containsKey(worker))
-				return activeJob;
+		final J activeJob = pullJobFromActiveJobs(worker);
+		if (activeJob != null)
+			return activeJob;
 		/* No active or processing job needs to be duplicated */
 		return null;
 	}
@@ -0,0 +1,61 @@
+package simdeg.scheduling;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import simdeg.reputation.Job;
+import simdeg.reputation.Result;
+
+/**
+ * Keeps the state of the jobs from their activation to their termination. A
+ * voting pool is created when a job is first sent to a worker and released as
+ * soon as one of its results is certified, so that the memory needed by the
+ * scheduler only depends on the jobs in progress. Terminated jobs are only
+ * counted.
+ */
+class JobLifecycle<J extends Job, R extends Result> {
+
+	/** Voting pools of the activated jobs that are not terminated */
+	private final Map<J, VotingPool<R>> votingPools = new HashMap<J, VotingPool<R>>();
+
+	/** Number of jobs that have been activated */
+	private long activatedJobsCount = 0L;
+
+	/** Number of jobs that have been terminated */
+	private long terminatedJobsCount = 0L;
+
+	/**
+	 * Gives the voting pools of the jobs in progress (the map must not be
+	 * modified outside this class).
+	 */
+	Map<J, VotingPool<R>> getVotingPools() {
+		return votingPools;
+	}
+
+	/**
+	 * Gives the voting pool of the job, which is created if the job was never
+	 * activated.
+	 */
+	VotingPool<R> activate(J job) {
+		VotingPool<R> votingPool = votingPools.get(job);
+		if (votingPool == null) {
+			votingPool = new VotingPool<R>(job, activatedJobsCount++);
+			votingPools.put(job, votingPool);
+		}
+		return votingPool;
+	}
+
+	/**
+	 * Releases all the state of a job whose result is certified.
+	 */
+	void terminate(J job) {
+		final VotingPool<R> votingPool = votingPools.remove(job);
+		assert (votingPool != null) : "Only activated jobs may be terminated";
+		terminatedJobsCount++;
+	}
+
+	long getTerminatedJobsCount() {
+		return terminatedJobsCount;
+	}
+
+}
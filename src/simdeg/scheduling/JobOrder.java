@@ -0,0 +1,29 @@
+package simdeg.scheduling;
+
+/**
+ * Policies for choosing which of the jobs waiting for more results is sent
+ * first to a worker.
+ */
+public enum JobOrder {
+
+	/** Jobs that were activated first are duplicated first */
+	OLDEST_FIRST {
+		long getKey(VotingPool<?> votingPool) {
+			return votingPool.getActivation();
+		}
+	},
+
+	/** Jobs having the most results are duplicated first */
+	CLOSEST_TO_QUORUM_FIRST {
+		long getKey(VotingPool<?> votingPool) {
+			return -votingPool.size();
+		}
+	};
+
+	/**
+	 * Gives the key of a job according to its voting pool (the lowest keys
+	 * come first).
+	 */
+	abstract long getKey(VotingPool<?> votingPool);
+
+}
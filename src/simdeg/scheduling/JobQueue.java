@@ -0,0 +1,122 @@
+package simdeg.scheduling;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+
+import simdeg.reputation.Job;
+
+/**
+ * Set of jobs iterated in the order given by a policy. The key of each job is
+ * computed from its voting pool when it is added, and ties are broken by the
+ * activation order of the jobs. Insertions and removals are done in
+ * logarithmic time.
+ */
+public class JobQueue<J extends Job> implements Iterable<J> {
+
+	/** Job with its position in the queue */
+	private static class Entry<J> implements Comparable<Entry<J>> {
+
+		private final J job;
+
+		private final long key;
+
+		private final long activation;
+
+		private Entry(J job, long key, long activation) {
+			this.job = job;
+			this.key = key;
+			this.activation = activation;
+		}
+
+		public int compareTo(Entry<J> entry) {
+			if (key != entry.key)
+				return key < entry.key ? -1 : 1;
+			if (activation != entry.activation)
+				return activation < entry.activation ? -1 : 1;
+			return 0;
+		}
+
+	}
+
+	/** Policy ordering the jobs */
+	private final JobOrder order;
+
+	/** Ordered jobs */
+	private final TreeSet<Entry<J>> entries = new TreeSet<Entry<J>>();
+
+	/** Position of each job */
+	private final Map<J, Entry<J>> index = new HashMap<J, Entry<J>>();
+
+	public JobQueue(JobOrder order) {
+		this.order = order;
+	}
+
+	public JobOrder getOrder() {
+		return order;
+	}
+
+	/**
+	 * Inserts a job according to the current state of its voting pool (it is
+	 * moved if it is already present).
+	 */
+	public void add(J job, VotingPool<?> votingPool) {
+		remove(job);
+		final Entry<J> entry = new Entry<J>(job, order.getKey(votingPool),
+				votingPool.getActivation());
+		entries.add(entry);
+		index.put(job, entry);
+	}
+
+	public boolean remove(J job) {
+		final Entry<J> entry = index.remove(job);
+		if (entry == null)
+			return false;
+		entries.remove(entry);
+		return true;
+	}
+
+	public boolean contains(J job) {
+		return index.containsKey(job);
+	}
+
+	public int size() {
+		return index.size();
+	}
+
+	public boolean isEmpty() {
+		return index.isEmpty();
+	}
+
+	/**
+	 * Iterates over the jobs in the order of the policy.
+	 */
+	public Iterator<J> iterator() {
+		final Iterator<Entry<J>> iterator = entries.iterator();
+		return new Iterator<J>() {
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			public J next() {
+				return iterator.next().job;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	public String toString() {
+		final StringBuilder builder = new StringBuilder("[");
+		for (Entry<J> entry : entries) {
+			if (builder.length() > 1)
+				builder.append(", ");
+			builder.append(entry.job);
+		}
+		return builder.append("]").toString();
+	}
+
+}
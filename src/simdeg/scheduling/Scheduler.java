@@ -2,7 +2,7 @@ package simdeg.scheduling;
 
 import java.util.ArrayDeque;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
@@ -35,20 +35,29 @@ abstract public class Scheduler<J extends Job, R extends Result> {
 	/** Jobs available for being sent to workers */
 	protected Queue<J> availableJobs = new ArrayDeque<J>();
 
-	/** Jobs that have been processed but not currently */
-	protected Set<J> activeJobs = new HashSet<J>();
+	/**
+	 * Jobs that have been processed but not currently (ordered by the job
+	 * selection policy).
+	 */
+	protected JobQueue<J> activeJobs = new JobQueue<J>(JobOrder.OLDEST_FIRST);
 
-	/** Jobs being processed by at least one worker */
-	protected Set<J> processingJobs = new HashSet<J>();
+	/** Jobs being processed by at least one worker (in activation order) */
+	protected Set<J> processingJobs = new LinkedHashSet<J>();
 
-	/** Each terminated jobs has one certified result and is not being processed */
-	private Set<J> terminatedJobs = new HashSet<J>();
+	/**
+	 * State of the activated jobs (each terminated jobs has one certified
+	 * result and is not being processed).
+	 */
+	private final JobLifecycle<J, R> lifecycle = new JobLifecycle<J, R>();
 
 	/**
 	 * Voting pools obtained so far (keys correspond to all jobs except those
-	 * that are available).
+	 * that are available or terminated).
 	 */
-	protected Map<J, VotingPool<R>> votingPools = new HashMap<J, VotingPool<R>>();
+	protected Map<J, VotingPool<R>> votingPools = lifecycle.getVotingPools();
+
+	/** Job currently processed by each assigned worker */
+	private Map<Worker, J> assignments = new HashMap<Worker, J>();
 
 	private SchedulerListener listener;
 
@@ -80,6 +89,28 @@ abstract public class Scheduler<J extends Job, R extends Result> {
 			reputationSystem.removeAllWorkers(workers);
 	}
 
+	/**
+	 * Specifies the policy choosing which active job is duplicated first (must
+	 * be called before any job is activated).
+	 */
+	public void setJobOrder(JobOrder jobOrder) {
+		if (!activeJobs.isEmpty() || !processingJobs.isEmpty())
+			throw new IllegalStateException(
+					"The job order cannot be changed once jobs are active");
+		activeJobs = new JobQueue<J>(jobOrder);
+	}
+
+	public JobOrder getJobOrder() {
+		return activeJobs.getOrder();
+	}
+
+	/**
+	 * Gives the number of jobs that have a certified result.
+	 */
+	public long getTerminatedJobsCount() {
+		return lifecycle.getTerminatedJobsCount();
+	}
+
 	/**
 	 * Adds a single work-unit to be treated.
 	 */
@@ -107,11 +138,7 @@ abstract public class Scheduler<J extends Job, R extends Result> {
 	 * Tests whether a worker is working on any job or not.
 	 */
 	private boolean isAssigned(Worker worker) {
-		for (VotingPool<R> votingPool : votingPools.values())
-			if (votingPool.containsKey(worker)
-					&& votingPool.get(worker) == null)
-				return true;
-		return false;
+		return assignments.containsKey(worker);
 	}
 
 	/**
@@ -128,6 +155,7 @@ abstract public class Scheduler<J extends Job, R extends Result> {
 						"This worker has already computed this job");
 
 			final VotingPool<R> votingPool = votingPools.get(job);
+			assignments.remove(worker);
 			if (result == null) {
 				/*
 				 * The worker gives up the computation without asking for
@@ -136,7 +164,7 @@ abstract public class Scheduler<J extends Job, R extends Result> {
 				votingPool.remove(worker);
 				if (votingPool.isComplete()) {
 					processingJobs.remove(job);
-					activeJobs.add(job);
+					activeJobs.add(job, votingPool);
 				}
 				return null;
 			} else {
@@ -155,8 +183,7 @@ abstract public class Scheduler<J extends Job, R extends Result> {
 					// TODO takes also into account the maximum number of
 					// workers
 					if (certifiedResult != null) {
-						terminatedJobs.add(job);
-						votingPools.remove(votingPool);
+						lifecycle.terminate(job);
 						if (reputationSystem != null)
 							reputationSystem.setCertifiedResult(job,
 									certifiedResult);
@@ -164,7 +191,7 @@ abstract public class Scheduler<J extends Job, R extends Result> {
 							listener.setCertifiedResult(votingPool,
 									certifiedResult);
 					} else
-						activeJobs.add(job);
+						activeJobs.add(job, votingPool);
 				}
 			}
 		} else
@@ -191,9 +218,8 @@ abstract public class Scheduler<J extends Job, R extends Result> {
 		processingJobs.add(pulledJob);
 
 		/* Update voting pools */
-		if (!votingPools.containsKey(pulledJob))
-			votingPools.put(pulledJob, new VotingPool<R>(pulledJob));
-		votingPools.get(pulledJob).put(worker, null);
+		lifecycle.activate(pulledJob).put(worker, null);
+		assignments.put(worker, pulledJob);
 
 		return pulledJob;
 	}
@@ -204,6 +230,18 @@ abstract public class Scheduler<J extends Job, R extends Result> {
 	 */
 	abstract protected J pullJobFromSets(Worker worker);
 
+	/**
+	 * Gives the first active job according to the job order that the given
+	 * worker has not already been assigned to. Only the jobs already computed
+	 * by this worker are skipped.
+	 */
+	protected J pullJobFromActiveJobs(Worker worker) {
+		for (J activeJob : activeJobs)
+			if (!votingPools.get(activeJob).containsKey(worker))
+				return activeJob;
+		return null;
+	}
+
 	/**
 	 * Specifies the listener that will handles the job submissions and the
 	 * certified results for this scheduler
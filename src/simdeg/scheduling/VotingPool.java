@@ -1,8 +1,12 @@
 package simdeg.scheduling;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.logging.Logger;
 
@@ -12,32 +16,321 @@ import simdeg.reputation.Worker;
 
 /**
  * Correspondence between the workers and their results (null if still
- * processing).
+ * processing). Voting pools are small, so the votes are stored in parallel
+ * arrays in the order of arrival. The number of votes for each distinct result
+ * and the result having the majority are updated as the votes arrive, so that
+ * no intermediate collection is built for certifying a result.
  */
-public class VotingPool<R extends Result> extends HashMap<Worker, R> {
-
-	private static final long serialVersionUID = 1L;
+public class VotingPool<R extends Result> extends AbstractMap<Worker, R> {
 
 	/** Logger */
 	private static final Logger logger = Logger.getLogger(VotingPool.class
 			.getName());
 
+	/** Initial number of votes that can be stored without resizing */
+	private static final int INITIAL_CAPACITY = 4;
+
 	/** Job that is concerned by this voting pool */
 	private final Job job;
 
+	/** Rank of the job among the activated ones */
+	private final long activation;
+
+	/** Workers in the order in which they were assigned to the job */
+	private Worker[] workers = new Worker[INITIAL_CAPACITY];
+
+	/** Result of each worker (null if still processing) */
+	private Object[] results = new Object[INITIAL_CAPACITY];
+
+	/** Number of votes */
+	private int size = 0;
+
+	/** Number of workers that have not returned their result yet */
+	private int pending = 0;
+
+	/** Group of the result of each worker (-1 if still processing) */
+	private int[] groups = new int[INITIAL_CAPACITY];
+
+	/** Distinct results in the order of their first arrival */
+	private Object[] groupResults = new Object[INITIAL_CAPACITY];
+
+	/** Number of workers having returned each distinct result */
+	private int[] groupSizes = new int[INITIAL_CAPACITY];
+
+	/** Number of distinct results */
+	private int groupsCount = 0;
+
+	/** Group having the most votes (the first one in case of tie) */
+	private int majority = -1;
+
 	protected VotingPool(Job job) {
+		this(job, 0L);
+	}
+
+	protected VotingPool(Job job, long activation) {
 		this.job = job;
+		this.activation = activation;
 	}
 
 	public Job getJob() {
 		return job;
 	}
 
+	protected long getActivation() {
+		return activation;
+	}
+
+	private static boolean equal(Object object1, Object object2) {
+		return object1 == object2
+				|| (object1 != null && object1.equals(object2));
+	}
+
+	private int indexOf(Object worker) {
+		for (int i = 0; i < size; i++)
+			if (equal(workers[i], worker))
+				return i;
+		return -1;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean containsKey(Object worker) {
+		return indexOf(worker) != -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	public R get(Object worker) {
+		final int index = indexOf(worker);
+		return index == -1 ? null : (R) results[index];
+	}
+
+	@SuppressWarnings("unchecked")
+	public R put(Worker worker, R result) {
+		final int index = indexOf(worker);
+		if (index != -1) {
+			final R previous = (R) results[index];
+			removeVote(index);
+			results[index] = result;
+			addVote(index);
+			return previous;
+		}
+		if (size == workers.length) {
+			final Worker[] largerWorkers = new Worker[2 * size];
+			System.arraycopy(workers, 0, largerWorkers, 0, size);
+			workers = largerWorkers;
+			final Object[] largerResults = new Object[2 * size];
+			System.arraycopy(results, 0, largerResults, 0, size);
+			results = largerResults;
+			final int[] largerGroups = new int[2 * size];
+			System.arraycopy(groups, 0, largerGroups, 0, size);
+			groups = largerGroups;
+		}
+		workers[size] = worker;
+		results[size] = result;
+		addVote(size);
+		size++;
+		return null;
+	}
+
+	public R remove(Object worker) {
+		final int index = indexOf(worker);
+		if (index == -1)
+			return null;
+		return removeAt(index);
+	}
+
+	@SuppressWarnings("unchecked")
+	private R removeAt(int index) {
+		final R previous = (R) results[index];
+		removeVote(index);
+		System.arraycopy(workers, index + 1, workers, index, size - index - 1);
+		System.arraycopy(results, index + 1, results, index, size - index - 1);
+		System.arraycopy(groups, index + 1, groups, index, size - index - 1);
+		size--;
+		workers[size] = null;
+		results[size] = null;
+		return previous;
+	}
+
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			workers[i] = null;
+			results[i] = null;
+		}
+		for (int g = 0; g < groupsCount; g++)
+			groupResults[g] = null;
+		size = 0;
+		pending = 0;
+		groupsCount = 0;
+		majority = -1;
+	}
+
+	public Set<Map.Entry<Worker, R>> entrySet() {
+		return new AbstractSet<Map.Entry<Worker, R>>() {
+			public int size() {
+				return size;
+			}
+
+			public Iterator<Map.Entry<Worker, R>> iterator() {
+				return new Iterator<Map.Entry<Worker, R>>() {
+					private int next = 0;
+
+					private boolean removable = false;
+
+					public boolean hasNext() {
+						return next < size;
+					}
+
+					@SuppressWarnings("unchecked")
+					public Map.Entry<Worker, R> next() {
+						if (next >= size)
+							throw new NoSuchElementException();
+						removable = true;
+						final int index = next++;
+						return new AbstractMap.SimpleEntry<Worker, R>(
+								workers[index], (R) results[index]) {
+							private static final long serialVersionUID = 1L;
+
+							public R setValue(R result) {
+								super.setValue(result);
+								return put(getKey(), result);
+							}
+						};
+					}
+
+					public void remove() {
+						if (!removable)
+							throw new IllegalStateException();
+						removable = false;
+						removeAt(--next);
+					}
+				};
+			}
+		};
+	}
+
 	protected boolean isComplete() {
-		for (R result : values())
-			if (result == null)
-				return false;
-		return true;
+		return pending == 0;
+	}
+
+	/**
+	 * Counts the vote at the given position in the group of its result.
+	 */
+	private void addVote(int index) {
+		final Object result = results[index];
+		if (result == null) {
+			groups[index] = -1;
+			pending++;
+			return;
+		}
+		int g = 0;
+		while (g < groupsCount && !result.equals(groupResults[g]))
+			g++;
+		if (g == groupsCount) {
+			if (groupsCount == groupResults.length) {
+				final Object[] largerResults = new Object[2 * groupsCount];
+				System.arraycopy(groupResults, 0, largerResults, 0,
+						groupsCount);
+				groupResults = largerResults;
+				final int[] largerSizes = new int[2 * groupsCount];
+				System.arraycopy(groupSizes, 0, largerSizes, 0, groupsCount);
+				groupSizes = largerSizes;
+			}
+			groupResults[groupsCount] = result;
+			groupSizes[groupsCount] = 0;
+			groupsCount++;
+		}
+		groups[index] = g;
+		groupSizes[g]++;
+		if (majority == -1 || groupSizes[g] > groupSizes[majority]
+				|| (groupSizes[g] == groupSizes[majority] && g < majority))
+			majority = g;
+	}
+
+	/**
+	 * Withdraws the vote at the given position from the group of its result.
+	 */
+	private void removeVote(int index) {
+		final int g = groups[index];
+		if (g == -1) {
+			pending--;
+			return;
+		}
+		groupSizes[g]--;
+		if (groupSizes[g] == 0) {
+			/* Forget the result as nobody returned it anymore */
+			System.arraycopy(groupResults, g + 1, groupResults, g,
+					groupsCount - g - 1);
+			System.arraycopy(groupSizes, g + 1, groupSizes, g, groupsCount
+					- g - 1);
+			groupsCount--;
+			groupResults[groupsCount] = null;
+			for (int i = 0; i < size; i++)
+				if (groups[i] > g)
+					groups[i]--;
+		}
+		if (g <= majority) {
+			majority = groupsCount == 0 ? -1 : 0;
+			for (int group = 1; group < groupsCount; group++)
+				if (groupSizes[group] > groupSizes[majority])
+					majority = group;
+		}
+	}
+
+	/**
+	 * Gives the number of distinct results that are returned. Each of them
+	 * forms a group identified by its rank of arrival.
+	 */
+	protected int getResultsCount() {
+		return groupsCount;
+	}
+
+	/**
+	 * Gives the result of a group.
+	 */
+	@SuppressWarnings("unchecked")
+	protected R getResult(int group) {
+		return (R) groupResults[group];
+	}
+
+	/**
+	 * Gives the number of workers that returned the result of a group.
+	 */
+	protected int getVotes(int group) {
+		return groupSizes[group];
+	}
+
+	/**
+	 * Gives the result returned by the most workers (the first one to arrive
+	 * in case of tie, null if there is none).
+	 */
+	@SuppressWarnings("unchecked")
+	protected R getMajorityResult() {
+		return majority == -1 ? null : (R) groupResults[majority];
+	}
+
+	/**
+	 * Gives the number of workers that returned the majority result.
+	 */
+	protected int getMajorityVotes() {
+		return majority == -1 ? 0 : groupSizes[majority];
+	}
+
+	/**
+	 * Gives the workers that returned the result of a group.
+	 */
+	protected Set<Worker> getWorkers(int group) {
+		final Set<Worker> set = new HashSet<Worker>();
+		for (int i = 0; i < size; i++)
+			if (groups[i] == group)
+				set.add(workers[i]);
+		return set;
 	}
 
 	/**
@@ -46,17 +339,12 @@ public class VotingPool<R extends Result> extends HashMap<Worker, R> {
 	protected Map<R, Set<Worker>> getJobsByResult() {
 		assert (isComplete()) : "Some results have not yet arrived";
 
-		/* Initialization of the structure */
-		Map<R, Set<Worker>> map = new HashMap<R, Set<Worker>>();
-		for (R result : values())
-			map.put(result, new HashSet<Worker>());
-
-		/* Regroup the workers */
-		for (Worker worker : keySet())
-			map.get(get(worker)).add(worker);
+		final Map<R, Set<Worker>> map = new HashMap<R, Set<Worker>>();
+		for (int group = 0; group < getResultsCount(); group++)
+			map.put(getResult(group), getWorkers(group));
 		logger.fine("We have " + map.size() + " distinct results in groups "
 				+ map.values());
 		return map;
 	}
 
-}
\ No newline at end of file
+}
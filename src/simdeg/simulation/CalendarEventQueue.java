@@ -0,0 +1,246 @@
+package simdeg.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Event queue based on a calendar queue (R. Brown, 1988). Events are spread
+ * in buckets that each cover a window of dates (a day of a year). The width of
+ * the windows is adapted to the observed spacing between consecutive events
+ * each time the number of buckets is doubled or halved, which makes both
+ * insertion and retrieval constant in amortized time when events are evenly
+ * spread, as it is the case with long availability traces.
+ */
+class CalendarEventQueue extends EventQueue {
+
+	/** Minimal number of buckets */
+	private static final int MIN_BUCKETS = 2;
+
+	/** Initial number of events in each bucket */
+	private static final int INITIAL_CAPACITY = 4;
+
+	/** Number of events considered for estimating their spacing */
+	private static final int SAMPLE = 25;
+
+	/** Events in each bucket sorted from the latest to the earliest */
+	private Event[][] buckets;
+
+	/** Number of events in each bucket */
+	private int[] counts;
+
+	/** Length of the window of dates covered by each bucket */
+	private double width = 1.0d;
+
+	/** Index of the window containing the earliest events */
+	private long window;
+
+	/** Bucket associated to the current window */
+	private int bucket;
+
+	/** Number of events in the calendar */
+	private int size = 0;
+
+	protected CalendarEventQueue() {
+		initialize(MIN_BUCKETS, width);
+	}
+
+	protected void add(Event event) {
+		stamp(event);
+		insert(event);
+		size++;
+		if (size > 2 * buckets.length)
+			resize(2 * buckets.length);
+	}
+
+	protected boolean remove(Event event) {
+		final int index = event.getSlot();
+		if (index == Event.NO_SLOT || index >= buckets.length)
+			return false;
+		final Event[] events = buckets[index];
+		final int position = search(events, counts[index], event);
+		if (position == counts[index] || events[position] != event)
+			return false;
+		System.arraycopy(events, position + 1, events, position, counts[index]
+				- position - 1);
+		events[--counts[index]] = null;
+		event.setSlot(Event.NO_SLOT);
+		size--;
+		shrink();
+		return true;
+	}
+
+	protected Event pollFirst() {
+		if (size == 0)
+			return null;
+		final Event first = take();
+		size--;
+		shrink();
+		return first;
+	}
+
+	protected int size() {
+		return size;
+	}
+
+	protected void clear() {
+		for (int i = 0; i < buckets.length; i++)
+			for (int j = 0; j < counts[i]; j++)
+				buckets[i][j].setSlot(Event.NO_SLOT);
+		size = 0;
+		initialize(MIN_BUCKETS, width);
+	}
+
+	/**
+	 * Creates empty buckets of the given width.
+	 */
+	private void initialize(int bucketsNumber, double width) {
+		this.buckets = new Event[bucketsNumber][INITIAL_CAPACITY];
+		this.counts = new int[bucketsNumber];
+		this.width = width;
+		this.window = 0L;
+		this.bucket = 0;
+	}
+
+	private long getWindow(double date) {
+		return (long) Math.floor(date / width);
+	}
+
+	private int getBucket(long window) {
+		return (int) (((window % buckets.length) + buckets.length) % buckets.length);
+	}
+
+	/**
+	 * Finds the position of an event in a bucket (or where it would be
+	 * inserted).
+	 */
+	private static int search(Event[] events, int count, Event event) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (before(event, events[middle]))
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Puts an event in its bucket without changing the size of the calendar.
+	 */
+	private void insert(Event event) {
+		final long eventWindow = getWindow(event.getDate());
+		final int index = getBucket(eventWindow);
+		/* Move backward the current window if the event is earlier */
+		if (eventWindow < window || size == 0) {
+			window = eventWindow;
+			bucket = index;
+		}
+		if (counts[index] == buckets[index].length)
+			buckets[index] = Arrays.copyOf(buckets[index],
+					2 * buckets[index].length);
+		final Event[] events = buckets[index];
+		final int position = search(events, counts[index], event);
+		System.arraycopy(events, position, events, position + 1, counts[index]
+				- position);
+		events[position] = event;
+		counts[index]++;
+		event.setSlot(index);
+	}
+
+	/**
+	 * Removes the earliest event without changing the size of the calendar.
+	 */
+	private Event take() {
+		/* Look at each bucket for one year */
+		for (int i = 0; i < buckets.length; i++) {
+			final int index = (bucket + i) % buckets.length;
+			if (counts[index] != 0
+					&& getWindow(buckets[index][counts[index] - 1].getDate()) == window
+							+ i) {
+				bucket = index;
+				window += i;
+				return takeLast(index);
+			}
+		}
+		/* Otherwise, search directly the earliest event */
+		int earliest = -1;
+		for (int index = 0; index < buckets.length; index++)
+			if (counts[index] != 0
+					&& (earliest == -1 || before(
+							buckets[index][counts[index] - 1],
+							buckets[earliest][counts[earliest] - 1])))
+				earliest = index;
+		bucket = earliest;
+		window = getWindow(buckets[earliest][counts[earliest] - 1].getDate());
+		return takeLast(earliest);
+	}
+
+	private Event takeLast(int index) {
+		final Event event = buckets[index][--counts[index]];
+		buckets[index][counts[index]] = null;
+		event.setSlot(Event.NO_SLOT);
+		return event;
+	}
+
+	private void shrink() {
+		if (size < buckets.length / 2 && buckets.length > MIN_BUCKETS)
+			resize(buckets.length / 2);
+	}
+
+	/**
+	 * Redistributes the events in a new number of buckets whose width is
+	 * adapted to the current spacing between events.
+	 */
+	private void resize(int bucketsNumber) {
+		final double newWidth = sampleWidth();
+		final Event[][] oldBuckets = buckets;
+		final int[] oldCounts = counts;
+		initialize(bucketsNumber, newWidth);
+		final int count = size;
+		size = 0;
+		for (int i = 0; i < oldBuckets.length; i++)
+			for (int j = 0; j < oldCounts[i]; j++) {
+				insert(oldBuckets[i][j]);
+				size++;
+			}
+		assert (size == count) : "Events lost while resizing";
+	}
+
+	/**
+	 * Estimates the width of the buckets as three times the average spacing
+	 * between the earliest events (ignoring large gaps).
+	 */
+	private double sampleWidth() {
+		if (size < 2)
+			return width;
+		final Event[] sample = new Event[Math.min(SAMPLE, size)];
+		for (int i = 0; i < sample.length; i++)
+			sample[i] = take();
+		for (Event event : sample)
+			insert(event);
+		final double average = (sample[sample.length - 1].getDate() - sample[0]
+				.getDate())
+				/ (sample.length - 1);
+		if (average <= 0.0d)
+			return width;
+		double total = 0.0d;
+		int count = 0;
+		for (int i = 1; i < sample.length; i++) {
+			final double spacing = sample[i].getDate()
+					- sample[i - 1].getDate();
+			if (spacing <= 2.0d * average) {
+				total += spacing;
+				count++;
+			}
+		}
+		if (total <= 0.0d)
+			return 3.0d * average;
+		return 3.0d * total / count;
+	}
+
+	public String toString() {
+		return "CalendarEventQueue";
+	}
+
+}
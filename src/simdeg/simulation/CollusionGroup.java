@@ -7,7 +7,7 @@ import java.util.Set;
 import java.util.logging.Logger;
 
 import simdeg.util.OutOfRangeException;
-import simdeg.util.RandomManager;
+import simdeg.util.SplitRandom;
 
 class CollusionGroup extends HashSet<Worker> {
 
@@ -17,6 +17,12 @@ class CollusionGroup extends HashSet<Worker> {
 	private static final Logger logger = Logger.getLogger(CollusionGroup.class
 			.getName());
 
+	/** Simulation to which belongs the group */
+	private final SimulationContext context;
+
+	/** Random stream of the group (indexed by the jobs) */
+	private final SplitRandom random;
+
 	/** Probability that each worker of this group colludes if they do not fail */
 	final private double collusionProbability;
 
@@ -38,12 +44,16 @@ class CollusionGroup extends HashSet<Worker> {
 	/**
 	 * Simple constructor used when workers are added one by one.
 	 */
-	protected CollusionGroup(double collusionProbability) {
-		this(new HashSet<Worker>(), collusionProbability);
+	protected CollusionGroup(SimulationContext context,
+			double collusionProbability) {
+		this(context, new HashSet<Worker>(), collusionProbability);
 	}
 
-	protected CollusionGroup(Set<Worker> workers, double collusionProbability) {
+	protected CollusionGroup(SimulationContext context, Set<Worker> workers,
+			double collusionProbability) {
 		super(workers);
+		this.context = context;
+		this.random = context.split("reliability");
 		this.collusionProbability = collusionProbability;
 
 		/* Test for admissibility of parameter */
@@ -92,15 +102,15 @@ class CollusionGroup extends HashSet<Worker> {
 				return interCollusionGroup.getResult(job);
 
 		if (!collusion.containsKey(job)) {
-			collusion.put(job, RandomManager.getRandom("reliability")
-					.nextDouble() < collusionProbability / probabilityLeft);
+			collusion.put(job, random.getDouble(job.getIndex())
+					< collusionProbability / probabilityLeft);
 			if (collusion.get(job))
 				logger.fine("Group of collusion " + this + " collude for job "
 						+ job);
 		}
 
 		if (collusion.get(job))
-			return Result.getColludedResult(this);
+			return context.getColludedResult(this);
 		else
 			return null;
 	}
@@ -9,10 +9,19 @@ import simdeg.util.HashableObject;
  */
 abstract class Event extends HashableObject {
 
+	/** Slot value of an event that is not stored in a heap */
+	protected static final int NO_SLOT = -1;
+
 	private final double date;
 
 	private final Worker worker;
 
+	/** Order of insertion in the event queue (breaks ties between dates) */
+	private long sequence;
+
+	/** Position in the heap of the event queue (if any) */
+	private int slot = NO_SLOT;
+
 	protected Event(double date, Worker worker) {
 		this.date = date;
 		this.worker = worker;
@@ -26,6 +35,30 @@ abstract class Event extends HashableObject {
 		return worker;
 	}
 
+	protected final long getSequence() {
+		return sequence;
+	}
+
+	protected final void setSequence(long sequence) {
+		this.sequence = sequence;
+	}
+
+	protected final int getSlot() {
+		return slot;
+	}
+
+	protected final void setSlot(int slot) {
+		this.slot = slot;
+	}
+
+	/**
+	 * Tests whether this event was cancelled after being queued, in which case
+	 * it must be ignored.
+	 */
+	protected boolean isStale() {
+		return false;
+	}
+
 }
 
 /**
@@ -58,15 +91,23 @@ class ProcessTimeoutEvent extends Event {
 
 	private final Job job;
 
+	/** Generation of the timeout events of the worker at creation */
+	private final int generation;
+
 	protected ProcessTimeoutEvent(double date, Worker worker, Job job) {
 		super(date, worker);
 		this.job = job;
+		this.generation = worker.getTimeoutGeneration();
 	}
 
 	protected final Job getJob() {
 		return job;
 	}
 
+	protected boolean isStale() {
+		return generation != getWorker().getTimeoutGeneration();
+	}
+
 }
 
 /**
@@ -76,13 +117,21 @@ class ProcessCompletionEvent extends Event {
 
 	private final Job job;
 
+	/** Generation of the completion events of the worker at creation */
+	private final int generation;
+
 	protected ProcessCompletionEvent(double date, Worker worker, Job job) {
 		super(date, worker);
 		this.job = job;
+		this.generation = worker.getCompletionGeneration();
 	}
 
 	protected final Job getJob() {
 		return job;
 	}
 
+	protected boolean isStale() {
+		return generation != getWorker().getCompletionGeneration();
+	}
+
 }
\ No newline at end of file
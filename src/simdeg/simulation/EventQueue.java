@@ -0,0 +1,55 @@
+package simdeg.simulation;
+
+/**
+ * Collection of pending events that are chronologically considered by the
+ * simulator. Events with the same date are polled in the order in which they
+ * were added.
+ */
+abstract class EventQueue {
+
+	/** Number of events added so far (used for breaking ties) */
+	private long sequence = 0L;
+
+	/**
+	 * Gives the next sequence number to an event entering the queue.
+	 */
+	protected final void stamp(Event event) {
+		event.setSequence(sequence++);
+	}
+
+	/**
+	 * Tests whether the first event happens strictly before the second one.
+	 */
+	protected static final boolean before(Event event1, Event event2) {
+		return event1.getDate() < event2.getDate()
+				|| (event1.getDate() == event2.getDate() && event1
+						.getSequence() < event2.getSequence());
+	}
+
+	/**
+	 * Inserts a new event.
+	 */
+	protected abstract void add(Event event);
+
+	/**
+	 * Removes a pending event (does nothing if it is not present).
+	 */
+	protected abstract boolean remove(Event event);
+
+	/**
+	 * Retrieves and removes the earliest event (null if the queue is empty).
+	 */
+	protected abstract Event pollFirst();
+
+	protected abstract int size();
+
+	protected boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Removes every pending event.
+	 */
+	protected abstract void clear();
+
+}
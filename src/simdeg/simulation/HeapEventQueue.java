@@ -0,0 +1,119 @@
+package simdeg.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Event queue based on an indexed 4-ary heap. Each event knows its slot in the
+ * heap, which allows to remove it in logarithmic time without searching it.
+ */
+class HeapEventQueue extends EventQueue {
+
+	/** Number of children of each node */
+	private static final int ARITY = 4;
+
+	/** Initial capacity of the heap */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/** Events stored in heap order */
+	private Event[] heap = new Event[INITIAL_CAPACITY];
+
+	/** Number of events in the heap */
+	private int size = 0;
+
+	protected void add(Event event) {
+		assert (event.getSlot() == Event.NO_SLOT) : "Event already queued";
+		stamp(event);
+		if (size == heap.length)
+			heap = Arrays.copyOf(heap, 2 * heap.length);
+		siftUp(size++, event);
+	}
+
+	protected boolean remove(Event event) {
+		final int slot = event.getSlot();
+		if (slot == Event.NO_SLOT || slot >= size || heap[slot] != event)
+			return false;
+		removeAt(slot);
+		return true;
+	}
+
+	protected Event pollFirst() {
+		if (size == 0)
+			return null;
+		final Event first = heap[0];
+		removeAt(0);
+		return first;
+	}
+
+	protected int size() {
+		return size;
+	}
+
+	protected void clear() {
+		for (int i = 0; i < size; i++) {
+			heap[i].setSlot(Event.NO_SLOT);
+			heap[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Removes the event at the given slot by replacing it with the last one.
+	 */
+	private void removeAt(int slot) {
+		final Event removed = heap[slot];
+		removed.setSlot(Event.NO_SLOT);
+		final Event last = heap[--size];
+		heap[size] = null;
+		if (slot == size)
+			return;
+		if (slot > 0 && before(last, heap[(slot - 1) / ARITY]))
+			siftUp(slot, last);
+		else
+			siftDown(slot, last);
+	}
+
+	/**
+	 * Moves the event up from the given slot until its parent is earlier.
+	 */
+	private void siftUp(int slot, Event event) {
+		while (slot > 0) {
+			final int parent = (slot - 1) / ARITY;
+			if (!before(event, heap[parent]))
+				break;
+			place(slot, heap[parent]);
+			slot = parent;
+		}
+		place(slot, event);
+	}
+
+	/**
+	 * Moves the event down from the given slot until its children are later.
+	 */
+	private void siftDown(int slot, Event event) {
+		while (true) {
+			final int first = slot * ARITY + 1;
+			if (first >= size)
+				break;
+			int earliest = first;
+			final int end = Math.min(first + ARITY, size);
+			for (int child = first + 1; child < end; child++)
+				if (before(heap[child], heap[earliest]))
+					earliest = child;
+			if (!before(heap[earliest], event))
+				break;
+			place(slot, heap[earliest]);
+			slot = earliest;
+		}
+		place(slot, event);
+	}
+
+	private void place(int slot, Event event) {
+		heap[slot] = event;
+		event.setSlot(slot);
+	}
+
+	public String toString() {
+		return "HeapEventQueue";
+	}
+
+}
@@ -8,7 +8,7 @@ import java.util.Set;
 import java.util.logging.Logger;
 
 import simdeg.util.OutOfRangeException;
-import simdeg.util.RandomManager;
+import simdeg.util.SplitRandom;
 
 /**
  * A group of inter-collusion contains several groups of collusion (at least
@@ -18,6 +18,12 @@ class InterCollusionGroup extends HashSet<CollusionGroup> {
 
 	private static final long serialVersionUID = 1L;
 
+	/** Simulation to which belongs the group */
+	private final SimulationContext context;
+
+	/** Random stream of the group (indexed by the jobs) */
+	private final SplitRandom random;
+
 	/**
 	 * Global variable that is used to make decision about which inter-colluding
 	 * group collude.
@@ -34,8 +40,9 @@ class InterCollusionGroup extends HashSet<CollusionGroup> {
 	 */
 	private Map<Job, Boolean> interCollusion = new HashMap<Job, Boolean>();
 
-	protected InterCollusionGroup(double interCollusionProbability) {
-		this(new HashSet<CollusionGroup>(), interCollusionProbability);
+	protected InterCollusionGroup(SimulationContext context,
+			double interCollusionProbability) {
+		this(context, new HashSet<CollusionGroup>(), interCollusionProbability);
 	}
 
 	/**
@@ -43,9 +50,12 @@ class InterCollusionGroup extends HashSet<CollusionGroup> {
 	 * and a probability of inter-collusion. Adds the result to the decision
 	 * tree.
 	 */
-	private InterCollusionGroup(Set<CollusionGroup> collusionGroups,
+	private InterCollusionGroup(SimulationContext context,
+			Set<CollusionGroup> collusionGroups,
 			double interCollusionProbability) {
 		super(collusionGroups);
+		this.context = context;
+		this.random = context.split("reliability");
 		this.interCollusionProbability = interCollusionProbability;
 
 		/* Test for admissibility of parameter */
@@ -60,6 +70,10 @@ class InterCollusionGroup extends HashSet<CollusionGroup> {
 		return result;
 	}
 
+	protected SplitRandom getRandom() {
+		return random;
+	}
+
 	protected double getInterCollusionProbability() {
 		return interCollusionProbability;
 	}
@@ -91,7 +105,7 @@ class InterCollusionGroup extends HashSet<CollusionGroup> {
 			collusionDecision.getInterCollusionDecision(job);
 
 		if (interCollusion.get(job))
-			return Result.getInterColludedResult(this);
+			return context.getInterColludedResult(this);
 		else
 			return null;
 	}
@@ -253,10 +267,12 @@ class InterCollusionDecisionTree {
 	}
 
 	/**
-	 * Procedure that updates the map in each inter-collusion group.
+	 * Procedure that updates the map in each inter-collusion group. The
+	 * decision at each node only depends on its group and on the job.
 	 */
 	protected void getInterCollusionDecision(Job job) {
-		if (RandomManager.getRandom("reliability").nextDouble() < interCollusionProbability) {
+		if (interCollusionGroup.getRandom().getDouble(job.getIndex())
+				< interCollusionProbability) {
 			this.interCollusionGroup.putInterCollusion(job, true);
 			logger.fine("Group of inter-collusion " + interCollusionGroup
 					+ " collude for job " + job);
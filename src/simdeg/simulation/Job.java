@@ -16,14 +16,30 @@ class Job extends HashableObject implements simdeg.reputation.Job {
 	 */
 	private final double fops;
 
+	/** Key of the job for the random choices made about it */
+	private final long index;
+
 	protected Job(double fops) {
 		this.fops = fops;
+		this.index = hashCode();
+	}
+
+	/**
+	 * Builds a job with a given key, such as its position in the trace.
+	 */
+	protected Job(double fops, long index) {
+		this.fops = fops;
+		this.index = index;
 	}
 
 	protected double getFOPS() {
 		return fops;
 	}
 
+	protected long getIndex() {
+		return index;
+	}
+
 	public String toString() {
 		return "(" + hashCode() + ", " + fops + ")";
 	}
@@ -1,48 +1,26 @@
 package simdeg.simulation;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import simdeg.util.HashableObject;
 
 /**
  * Specify the kind of possible results for the simulator and the scheduling
- * algorithms.
+ * algorithms. The results are given by the {@link SimulationContext}.
  */
 class Result extends HashableObject implements simdeg.reputation.Result {
 
-	/** All the correct result are the same */
-	private final static Result correct = new Result();
+	protected static final char CORRECT = 'T';
 
-	/** The results for each group of collusion */
-	private static Map<CollusionGroup, Result> colludedResults = new HashMap<CollusionGroup, Result>();
+	protected static final char FAILED = 'F';
 
-	/** The results for each group of inter-collusion */
-	private static Map<InterCollusionGroup, Result> interColludedResults = new HashMap<InterCollusionGroup, Result>();
+	protected static final char COLLUDED = 'C';
 
-	protected static Result getCorrectResult() {
-		return correct;
-	}
+	protected static final char INTER_COLLUDED = 'I';
 
-	/**
-	 * Returns a new result each time a worker failed. Each new result are
-	 * distincts.
-	 */
-	protected static Result getFailedResult() {
-		return new Result();
-	}
-
-	protected static Result getColludedResult(CollusionGroup collusionGroup) {
-		if (!colludedResults.containsKey(collusionGroup))
-			colludedResults.put(collusionGroup, new Result());
-		return colludedResults.get(collusionGroup);
-	}
+	/** Kind of result */
+	private final char kind;
 
-	protected static Result getInterColludedResult(
-			InterCollusionGroup interCollusionGroup) {
-		if (!interColludedResults.containsKey(interCollusionGroup))
-			interColludedResults.put(interCollusionGroup, new Result());
-		return interColludedResults.get(interCollusionGroup);
+	protected Result(char kind) {
+		this.kind = kind;
 	}
 
 	public boolean equals(Object aResult) {
@@ -50,13 +28,7 @@ class Result extends HashableObject implements simdeg.reputation.Result {
 	}
 
 	public String toString() {
-		if (this == correct)
-			return "T";
-		if (colludedResults.containsValue(this))
-			return "C";
-		if (interColludedResults.containsValue(this))
-			return "I";
-		return "F";
+		return String.valueOf(kind);
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,110 @@
+package simdeg.simulation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import simdeg.util.HashableObject;
+import simdeg.util.MersenneTwisterFast;
+import simdeg.util.SplitRandom;
+
+/**
+ * State shared by all the entities of a single simulation: the random
+ * generators, the source of the hash codes and the results that are common
+ * to several workers. Besides the sequential generators, each need has a
+ * splittable stream from which every entity takes its own stream. Two
+ * simulations with distinct contexts are independent and may run
+ * concurrently in distinct threads. A simulation gives the same outputs
+ * whatever was executed before in the JVM.
+ */
+class SimulationContext {
+
+	/** Random generators associated to each need */
+	private final Map<String, MersenneTwisterFast> randoms = new HashMap<String, MersenneTwisterFast>();
+
+	/** Streams from which the entities streams are split for each need */
+	private final Map<String, SplitRandom> streams = new HashMap<String, SplitRandom>();
+
+	/** Source of the hash codes of the objects created during the simulation */
+	private final HashableObject.Counter counter = new HashableObject.Counter();
+
+	/** All the correct results are the same */
+	private final Result correct;
+
+	/** The results for each group of collusion */
+	private final Map<CollusionGroup, Result> colludedResults = new HashMap<CollusionGroup, Result>();
+
+	/** The results for each group of inter-collusion */
+	private final Map<InterCollusionGroup, Result> interColludedResults = new HashMap<InterCollusionGroup, Result>();
+
+	/**
+	 * Builds a new context and makes it the current one for the thread.
+	 */
+	protected SimulationContext() {
+		enter();
+		randoms.put("", new MersenneTwisterFast(0L));
+		streams.put("", new SplitRandom(0L));
+		correct = new Result(Result.CORRECT);
+	}
+
+	/**
+	 * Specifies that the objects created from now by the current thread
+	 * belong to this context.
+	 */
+	protected void enter() {
+		HashableObject.setCounter(counter);
+	}
+
+	protected void setSeed(String key, long seed) {
+		if (!randoms.containsKey(key))
+			randoms.put(key, new MersenneTwisterFast());
+		randoms.get(key).setSeed(seed);
+		streams.put(key, new SplitRandom(seed));
+	}
+
+	/**
+	 * Gives the generator associated to the key (or the default one).
+	 */
+	protected MersenneTwisterFast getRandom(String key) {
+		if (randoms.containsKey(key))
+			return randoms.get(key);
+		return randoms.get("");
+	}
+
+	/**
+	 * Gives a new stream for an entity, split from the stream associated to
+	 * the key (or the default one). The entities must be created in the same
+	 * order for obtaining the same streams.
+	 */
+	protected SplitRandom split(String key) {
+		if (streams.containsKey(key))
+			return streams.get(key).split();
+		return streams.get("").split();
+	}
+
+	protected Result getCorrectResult() {
+		return correct;
+	}
+
+	/**
+	 * Returns a new result each time a worker failed. Each new result are
+	 * distincts.
+	 */
+	protected Result getFailedResult() {
+		return new Result(Result.FAILED);
+	}
+
+	protected Result getColludedResult(CollusionGroup collusionGroup) {
+		if (!colludedResults.containsKey(collusionGroup))
+			colludedResults.put(collusionGroup, new Result(Result.COLLUDED));
+		return colludedResults.get(collusionGroup);
+	}
+
+	protected Result getInterColludedResult(
+			InterCollusionGroup interCollusionGroup) {
+		if (!interColludedResults.containsKey(interCollusionGroup))
+			interColludedResults.put(interCollusionGroup, new Result(
+					Result.INTER_COLLUDED));
+		return interColludedResults.get(interCollusionGroup);
+	}
+
+}
@@ -6,12 +6,11 @@ import static simdeg.util.Collections.parseListOfList;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.InputMismatchException;
@@ -19,18 +18,21 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Scanner;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.TreeMap;
 import java.util.logging.Logger;
 
 import simdeg.reputation.ReputationSystem;
+import simdeg.scheduling.JobOrder;
 import simdeg.scheduling.ResultCertificator;
 import simdeg.scheduling.Scheduler;
 import simdeg.scheduling.SchedulerListener;
 import simdeg.scheduling.VotingPool;
+import simdeg.util.BatchOutputStream;
 import simdeg.util.OutOfRangeException;
-import simdeg.util.RandomManager;
+import simdeg.util.Trace;
+import simdeg.util.TraceIndex;
+import simdeg.util.TraceReader;
 
 /**
  * The Simulator is the supervisor of the simulated system. It generates and has
@@ -49,7 +51,8 @@ import simdeg.util.RandomManager;
  * successively considered. For example, both an unavailability and a completion
  * event for the same worker can cohabit at the same time. When one of these
  * events is polled from the list, the other one may be deleted or replaced by
- * another event.
+ * another event. Deleted events are either removed from the list or, when the
+ * cancellation is lazy, marked as stale and ignored when they are polled.
  * 
  * At any time, there is six possible configurations for the events related to a
  * given worker in the list of events:
@@ -92,19 +95,28 @@ class Simulator implements SchedulerListener {
 
 	private static final String SETI_AVAILABILITY_NAME = "event_trace.tab";
 
+	/** Number of certified jobs between two flushes if none is specified */
+	private static final String DEFAULT_FLUSH_INTERVAL = "1000";
+
+	/** Structure used for storing the events if none is specified */
+	private static final String DEFAULT_EVENT_QUEUE = "HeapEventQueue";
+
+	/** Policy for duplicating the active jobs if none is specified */
+	private static final String DEFAULT_JOB_ORDER = "OLDEST_FIRST";
+
 	private long startingTime;
 
 	/** Number of jobs that needs to be computed */
 	private final int jobsNumber;
 
 	/**
-	 * Scanner from which are iteratively read the availability and
+	 * Reader from which are iteratively read the availability and
 	 * unavailability events.
 	 */
-	private final Scanner availabilityTrace;
+	private final Trace availabilityTrace;
 
 	/** Contains the job costs */
-	private final Scanner jobsTrace;
+	private final Trace jobsTrace;
 
 	/** Specifies if the performance file corresponds to the SETI@Home trace */
 	private final boolean completeSetiSettings;
@@ -112,25 +124,27 @@ class Simulator implements SchedulerListener {
 	/** Maps the id in the trace files to the created workers */
 	private final Map<Integer, Worker> correspondence;
 
-	private final FileWriter output;
+	private final Writer output;
 
 	private final File outputRep;
 
+	/** Number of certified jobs between two flushes of the output file */
+	private final int flushInterval;
+
+	/** Specifies if the output files are compressed with gzip */
+	private final boolean compressedOutputs;
+
 	/** Ordered set of events that are chronologically considered */
-	private final TreeSet<Event> events = new TreeSet<Event>(
-			new Comparator<Event>() {
-				public int compare(Event arg0, Event arg1) {
-					if (arg0.getDate() < arg1.getDate())
-						return -1;
-					if (arg0.getDate() > arg1.getDate())
-						return 1;
-					if (arg0.hashCode() < arg1.hashCode())
-						return -1;
-					if (arg0.hashCode() > arg1.hashCode())
-						return 1;
-					return 0;
-				}
-			});
+	private final EventQueue events;
+
+	/**
+	 * Specifies if cancelled events are left in the queue and ignored when
+	 * polled instead of being removed.
+	 */
+	private final boolean lazyCancellation;
+
+	/** Number of cancelled events that were ignored when polled */
+	private long discardedEvents;
 
 	/**
 	 * Scheduler that gives a job for each worker request and receives the
@@ -150,32 +164,38 @@ class Simulator implements SchedulerListener {
 	/** Number of distinct jobs that are certified */
 	private int certifiedJobs;
 
+	/** Random generators, hash codes and results of this simulation */
+	private final SimulationContext context;
+
 	/** Builds a simulator with the given properties and output file */
 	protected Simulator(Properties properties) throws IOException {
 		/* Initialize the seeds */
+		context = new SimulationContext();
 		final long platformSeed = Long.parseLong(properties
 				.getProperty("platformSeed"));
-		RandomManager.setSeed("platform", platformSeed);
+		context.setSeed("platform", platformSeed);
 		final long reliabilitySeed = Long.parseLong(properties
 				.getProperty("reliabilitySeed"));
-		RandomManager.setSeed("reliability", reliabilitySeed);
+		context.setSeed("reliability", reliabilitySeed);
 
 		/* Detect if the availability trace file is the SETI@Home one */
 		final String name = properties.getProperty("availabilityTraceFile");
-		completeSetiSettings = name.substring(
-				name.length() - SETI_AVAILABILITY_NAME.length()).equals(
-				SETI_AVAILABILITY_NAME);
+		completeSetiSettings = isSetiTrace(new File(name));
 
 		/* Build workers */
 		final int workersNumber = Integer.parseInt(properties
 				.getProperty("workersNumber"));
 		final File availabilityTraceFile = new File(name);
-		correspondence = buildPlatform(workersNumber, availabilityTraceFile);
+		final boolean traceIndex = Boolean.parseBoolean(properties
+				.getProperty("traceIndex", "false"));
+		correspondence = buildPlatform(context, workersNumber,
+				availabilityTraceFile, traceIndex);
 		logger.info("Found first " + workersNumber + " workers");
 
 		final File workersSpeedFile = new File(properties
 				.getProperty("workersSpeedFile"));
-		setPlatformSpeed(correspondence, workersSpeedFile, completeSetiSettings);
+		setPlatformSpeed(correspondence, workersSpeedFile,
+				completeSetiSettings, traceIndex);
 		final Set<Worker> workers = new HashSet<Worker>(correspondence.values());
 		logger.info("The speeds of the workers are set");
 
@@ -183,7 +203,7 @@ class Simulator implements SchedulerListener {
 				.getProperty("reliabilityFraction"));
 		final double reliabilityProbability = Double.parseDouble(properties
 				.getProperty("reliabilityProbability"));
-		setPlatformReliability(workers, reliabilityFraction,
+		setPlatformReliability(context, workers, reliabilityFraction,
 				reliabilityProbability);
 		logger.info("The reliability of the workers are set");
 
@@ -192,8 +212,8 @@ class Simulator implements SchedulerListener {
 				properties.getProperty("collusionFraction"));
 		final List<Double> collusionProbability = parseList(Double.class,
 				properties.getProperty("collusionProbability"));
-		collusionGroups = buildCollusionGroup(workers, collusionFraction,
-				collusionProbability);
+		collusionGroups = buildCollusionGroup(context, workers,
+				collusionFraction, collusionProbability);
 		logger.info("The workers are set in groups of collusion");
 
 		/* Build inter-collusion groups */
@@ -201,7 +221,7 @@ class Simulator implements SchedulerListener {
 				Integer.class, properties.getProperty("interCollusionFraction"));
 		final List<Double> interCollusionProbability = parseList(Double.class,
 				properties.getProperty("interCollusionProbability"));
-		interCollusionGroups = buildInterCollusionGroup(workers,
+		interCollusionGroups = buildInterCollusionGroup(context, workers,
 				collusionGroups, interCollusionFraction,
 				interCollusionProbability);
 		logger.info("The groups of collusion are set"
@@ -210,14 +230,21 @@ class Simulator implements SchedulerListener {
 		new InterCollusionDecisionTree(interCollusionGroups);
 		logger.info("Decision tree is built");
 
+		/* Build the structure containing the events */
+		final String eventQueueClassName = properties.getProperty(
+				"eventQueue", DEFAULT_EVENT_QUEUE);
+		events = getEventQueue(eventQueueClassName);
+		logger.info("Events are stored in " + events);
+		lazyCancellation = Boolean.parseBoolean(properties.getProperty(
+				"lazyCancellation", "true"));
+
 		/* Workload parameters */
 		jobsNumber = Integer.parseInt(properties.getProperty("jobsNumber"));
 
 		/* Initialize the trace inputs */
-		availabilityTrace = new Scanner(availabilityTraceFile);
-		jobsTrace = new Scanner(new File(properties
+		availabilityTrace = openAvailabilityTrace(availabilityTraceFile);
+		jobsTrace = openJobsTrace(new File(properties
 				.getProperty("jobsTraceFile")));
-		jobsTrace.nextLine();
 
 		/* Build scheduling components */
 		final String schedulerClassName = properties.getProperty("scheduler");
@@ -227,14 +254,29 @@ class Simulator implements SchedulerListener {
 				.getProperty("reputationSystem");
 		scheduler = getScheduler(schedulerClassName,
 				resultCertificatorClassName, reputationSystemClassName);
+		final String jobOrderName = properties.getProperty("jobOrder",
+				DEFAULT_JOB_ORDER);
+		try {
+			scheduler.setJobOrder(JobOrder.valueOf(jobOrderName));
+		} catch (IllegalArgumentException e) {
+			System.err.println("JobOrder " + jobOrderName + " not found");
+			System.exit(1);
+		}
 
 		/* Initialize the scheduler */
 		scheduler.addAllWorkers(workers);
 		scheduler.putSchedulerListener(this);
 
 		/* Initialize the output files */
+		flushInterval = Integer.parseInt(properties.getProperty(
+				"outputFlushInterval", DEFAULT_FLUSH_INTERVAL));
+		compressedOutputs = Boolean.parseBoolean(properties.getProperty(
+				"outputCompression", "false"));
+		final boolean asyncOutput = Boolean.parseBoolean(properties
+				.getProperty("outputAsync", "false"));
 		final String outputFile = properties.getProperty("outputFile");
-		this.output = new FileWriter(new File(outputFile));
+		this.output = new OutputStreamWriter(new BatchOutputStream(new File(
+				outputFile), compressedOutputs, asyncOutput));
 		final String reputationFile = properties.getProperty("reputationFile");
 		this.outputRep = new File(reputationFile);
 	}
@@ -264,19 +306,14 @@ class Simulator implements SchedulerListener {
 	 * {@link UnavailabilityEvent} events.
 	 */
 	private void addAvailabilityEvent() {
-		if (!availabilityTrace.hasNext())
-			return;
-		int id = availabilityTrace.nextInt();
-		while (!correspondence.containsKey(id)) {
-			availabilityTrace.nextDouble();
-			availabilityTrace.nextDouble();
-			if (!availabilityTrace.hasNext())
+		do {
+			if (!availabilityTrace.next())
 				return;
-			id = availabilityTrace.nextInt();
-		}
+		} while (!correspondence.containsKey(availabilityTrace.getId()));
+		final int id = availabilityTrace.getId();
 		final Worker worker = correspondence.get(id);
-		final double start = availabilityTrace.nextDouble();
-		final double stop = availabilityTrace.nextDouble();
+		final double start = availabilityTrace.getValue(0);
+		final double stop = availabilityTrace.getValue(1);
 		events.add(new AvailabilityEvent(start, worker));
 		events.add(new UnavailabilityEvent(stop, worker));
 		logger.fine("New events added for worker " + id + " starting at time "
@@ -324,11 +361,16 @@ class Simulator implements SchedulerListener {
 	 * each event as they appear in the list of events.
 	 */
 	protected void run() {
+		context.enter();
 		startingTime = System.currentTimeMillis();
 		endOfJobQueue();
 		addAvailabilityEvent();
 		while (!events.isEmpty()) {
 			final Event event = events.pollFirst();
+			if (event.isStale()) {
+				discardedEvents++;
+				continue;
+			}
 			final double date = event.getDate();
 			final Worker worker = event.getWorker();
 			if (event instanceof AvailabilityEvent) {
@@ -365,15 +407,14 @@ class Simulator implements SchedulerListener {
 							"A worker may not be unavailable twice successively at time "
 									+ date);
 				if (worker.getNextProcessCompletionEvent() != null) {
+					/* Update progress done on the job */
+					worker.updateRemainingTime(date);
 					/*
 					 * Remove the completion event of the job assigned to the
 					 * current worker, it will be recreated when the worker
 					 * becomes available again.
 					 */
-					events.remove(worker.getNextProcessCompletionEvent());
-					/* Update progress done on the job */
-					worker.updateRemainingTime(date);
-					worker.setNextProcessCompletionEvent(null);
+					cancelNextProcessCompletionEvent(worker);
 				}
 				/* Update current status of the worker */
 				worker.setPreviousAvailabilityEvent(event);
@@ -388,7 +429,7 @@ class Simulator implements SchedulerListener {
 					throw new UnsupportedOperationException(
 							"A worker may not complete a job while being unavailable  at time "
 									+ date);
-				events.remove(worker.getNextProcessTimeoutEvent());
+				cancelNextProcessTimeoutEvent(worker);
 				/* Consider the result of the worker for this job */
 				final Result result = worker.getResult(job);
 				/* Submit result and request a new job */
@@ -410,7 +451,7 @@ class Simulator implements SchedulerListener {
 					worker.assignJob(null);
 					assert (worker.getNextProcessCompletionEvent() == null) : "No completion event if timeout is reached while unavailability phase";
 				} else {
-					events.remove(worker.getNextProcessCompletionEvent());
+					cancelNextProcessCompletionEvent(worker);
 					/* Request a new job */
 					final Job newJob = scheduler.submitResultAndPullJob(worker,
 							null, null);
@@ -426,17 +467,47 @@ class Simulator implements SchedulerListener {
 		stop();
 	}
 
+	/**
+	 * Cancels the completion event of a worker (it is either removed from the
+	 * events or ignored when polled).
+	 */
+	private void cancelNextProcessCompletionEvent(Worker worker) {
+		if (!lazyCancellation)
+			events.remove(worker.getNextProcessCompletionEvent());
+		worker.cancelNextProcessCompletionEvent();
+	}
+
+	/**
+	 * Cancels the timeout event of a worker (it is either removed from the
+	 * events or ignored when polled).
+	 */
+	private void cancelNextProcessTimeoutEvent(Worker worker) {
+		if (!lazyCancellation)
+			events.remove(worker.getNextProcessTimeoutEvent());
+		worker.cancelNextProcessTimeoutEvent();
+	}
+
+	/**
+	 * Gives the number of cancelled events that were ignored when polled.
+	 */
+	protected long getDiscardedEvents() {
+		return discardedEvents;
+	}
+
 	/**
 	 * Finalizes the simulation and generates the outputs.
 	 */
 	private void stop() {
 		logger.fine("Simulation ends");
+		logger.info(discardedEvents + " cancelled events were discarded");
 		availabilityTrace.close();
 		jobsTrace.close();
 		try {
 			output.close();
-			final FileWriter outputRep = new FileWriter(this.outputRep);
-			outputRep.write(scheduler.getReputationSystem() + "");
+			final Writer outputRep = new OutputStreamWriter(
+					new BatchOutputStream(this.outputRep, compressedOutputs,
+							false));
+			outputRep.write(String.valueOf(scheduler.getReputationSystem()));
 			outputRep.close();
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -445,74 +516,164 @@ class Simulator implements SchedulerListener {
 
 	/**
 	 * Builds the platform by making a correspondence between each id in the
-	 * availability trace file to a worker.
+	 * availability trace file to a worker. The first ids are either read from
+	 * the trace or from its index (text traces only).
 	 */
-	private static Map<Integer, Worker> buildPlatform(int workersNumber,
-			File availabilityTraceFile) throws FileNotFoundException {
+	private static Map<Integer, Worker> buildPlatform(
+			SimulationContext context, int workersNumber,
+			File availabilityTraceFile, boolean traceIndex) throws IOException {
 		if (workersNumber <= 0.0d)
 			throw new OutOfRangeException(workersNumber, 1, Integer.MAX_VALUE);
 
 		final Map<Integer, Worker> workers = new HashMap<Integer, Worker>();
-		Scanner scanner = new Scanner(availabilityTraceFile);
-		scanner.useDelimiter("\\s[0-9.]+\\s[0-9.]+\\n");
-		Set<Integer> ids = new HashSet<Integer>();
-		while (scanner.hasNext() && workers.size() < workersNumber) {
-			final int id = scanner.nextInt();
-			if (!ids.contains(id))
-				workers.put(id, new Worker());
+		if (traceIndex && !Trace.isBinary(availabilityTraceFile)) {
+			final TraceIndex index = TraceIndex.getIndex(
+					availabilityTraceFile, 0, 0);
+			for (int i = 0; i < index.size() && i < workersNumber; i++)
+				workers.put(index.getId(i), new Worker(context));
+			return workers;
 		}
-		scanner.close();
+		final Trace trace = openAvailabilityTrace(availabilityTraceFile);
+		while (workers.size() < workersNumber && trace.next()) {
+			final int id = trace.getId();
+			if (!workers.containsKey(id))
+				workers.put(id, new Worker(context));
+		}
+		trace.close();
 		return workers;
 	}
 
 	/**
-	 * Sets the speed of each worker with the workers performance file.
+	 * Sets the speed of each worker with the workers performance file. With
+	 * the SETI@Home settings, the lines of the workers are either searched
+	 * sequentially or directly accessed with the index of the file (text
+	 * traces only).
 	 */
 	private static void setPlatformSpeed(Map<Integer, Worker> correspondence,
-			File workersSpeedFile, boolean completeSetiSettings)
-			throws FileNotFoundException {
+			File workersSpeedFile, boolean completeSetiSettings,
+			boolean traceIndex) throws IOException {
 		int done = 0;
-		Scanner scanner = new Scanner(workersSpeedFile);
-		scanner.nextLine();
-		if (completeSetiSettings) {
-			while (scanner.hasNextLine() && done != correspondence.size()) {
-				scanner.next();
-				final int id = scanner.nextInt();
+		if (completeSetiSettings && traceIndex
+				&& !Trace.isBinary(workersSpeedFile)) {
+			final TraceReader reader = new TraceReader(workersSpeedFile);
+			final TraceIndex index = TraceIndex.getIndex(workersSpeedFile, 1,
+					1);
+			/* Visit the lines in the order of the file */
+			final Map<Long, Integer> offsets = new TreeMap<Long, Integer>();
+			for (int id : correspondence.keySet())
+				if (index.getOffset(id) != -1L)
+					offsets.put(index.getOffset(id), id);
+			for (long offset : offsets.keySet()) {
+				final int id = offsets.get(offset);
+				reader.seek(offset);
+				reader.skip();
+				if (reader.nextInt() != id)
+					throw new UnsupportedOperationException("The index of "
+							+ workersSpeedFile + " is outdated");
+				reader.skip();
+				reader.skip();
+				try {
+					setSetiSpeed(reader.nextDouble(), correspondence.get(id));
+				} catch (InputMismatchException e) {
+					setSetiSpeed(Double.NaN, correspondence.get(id));
+				}
+				done++;
+			}
+			reader.close();
+			if (done != correspondence.size())
+				throw new UnsupportedOperationException(
+						"Some worker speeds are not set");
+		} else if (completeSetiSettings) {
+			final Trace trace = openSpeedTrace(workersSpeedFile, true);
+			while (done != correspondence.size() && trace.next()) {
+				final int id = trace.getId();
 				if (correspondence.containsKey(id)) {
-					scanner.next();
-					scanner.next();
 					try {
-						final double fops = scanner.nextDouble();
-						correspondence.get(id).setFOPS(fops);
-						done++;
+						setSetiSpeed(trace.getValue(0), correspondence.get(id));
 					} catch (InputMismatchException e) {
-						System.err.println("Missing values in"
-								+ " the platform file");
-						System.exit(1);
+						setSetiSpeed(Double.NaN, correspondence.get(id));
 					}
+					done++;
 				}
-				scanner.nextLine();
 			}
+			trace.close();
 			if (done != correspondence.size())
 				throw new UnsupportedOperationException(
 						"Some worker speeds are not set");
 		} else {
+			final Trace trace = openSpeedTrace(workersSpeedFile, false);
 			for (Worker worker : correspondence.values()) {
-				for (int i = 0; i < 4; i++)
-					scanner.next();
-				final double fops = scanner.nextDouble();
-				worker.setFOPS(fops);
-				scanner.nextLine();
+				trace.next();
+				worker.setFOPS(trace.getValue(0));
 			}
+			trace.close();
+		}
+	}
+
+	/**
+	 * Sets the speed of a worker read in the SETI@Home host file (missing
+	 * values are read as NaN).
+	 */
+	private static void setSetiSpeed(double fops, Worker worker) {
+		if (Double.isNaN(fops)) {
+			System.err.println("Missing values in" + " the platform file");
+			System.exit(1);
 		}
-		scanner.close();
+		worker.setFOPS(fops);
+	}
+
+	/**
+	 * Opens the availability trace, whose lines contain the id of a worker
+	 * followed by the start and the end of an availability interval.
+	 */
+	static Trace openAvailabilityTrace(File file) throws IOException {
+		return Trace.open(file, 0, 0, 1, 2);
+	}
+
+	/**
+	 * Tests whether the availability trace is the SETI@Home one, including
+	 * once converted in a binary trace.
+	 */
+	static boolean isSetiTrace(File file) throws IOException {
+		return Trace.getSourceName(file).endsWith(SETI_AVAILABILITY_NAME);
+	}
+
+	/**
+	 * Opens the workers performance file. In the SETI@Home host file, the id
+	 * of each worker is in the second column.
+	 */
+	static Trace openSpeedTrace(File file, boolean completeSetiSettings)
+			throws IOException {
+		return Trace.open(file, 1, completeSetiSettings ? 1 : -1, 4);
+	}
+
+	/**
+	 * Opens the jobs trace, whose sixth column contains the job costs.
+	 */
+	static Trace openJobsTrace(File file) throws IOException {
+		return Trace.open(file, 1, -1, 5);
+	}
+
+	/**
+	 * Keeps in memory the traces specified in the properties, with the same
+	 * layouts than the ones used for opening them. Any simulation of the JVM
+	 * then reads them from memory.
+	 */
+	static void loadTraces(Properties properties) throws IOException {
+		final String name = properties.getProperty("availabilityTraceFile");
+		Trace.load(new File(name), 0, 0, 1, 2);
+		Trace.load(new File(properties.getProperty("workersSpeedFile")), 1,
+				isSetiTrace(new File(name)) ? 1 : -1, 4);
+		Trace.load(new File(properties.getProperty("jobsTraceFile")), 1, -1,
+				5);
 	}
 
 	/**
 	 * Assigns a reliability (probability of failure) to each worker.
 	 */
-	private static void setPlatformReliability(Set<Worker> workers,
-			double reliabilityFraction, double reliabilityProbability) {
+	private static void setPlatformReliability(SimulationContext context,
+			Set<Worker> workers, double reliabilityFraction,
+			double reliabilityProbability) {
 		if (reliabilityFraction <= 0.0d || reliabilityProbability > 1.0d)
 			throw new OutOfRangeException(reliabilityFraction, 0.0d, 1.0d);
 		if (reliabilityProbability < 0.0d || reliabilityProbability > 1.0d)
@@ -520,7 +681,7 @@ class Simulator implements SchedulerListener {
 
 		Set<Worker> unreliable = getRandomSubGroup(
 				(int) ((1.0d - reliabilityFraction) * workers.size()), workers,
-				RandomManager.getRandom("platform"));
+				context.getRandom("platform"));
 		for (Worker worker : unreliable)
 			worker.setReliability(reliabilityProbability);
 	}
@@ -529,7 +690,8 @@ class Simulator implements SchedulerListener {
 	 * Builds the groups of collusion.
 	 */
 	private static List<CollusionGroup> buildCollusionGroup(
-			Set<Worker> workers, List<Double> collusionFraction,
+			SimulationContext context, Set<Worker> workers,
+			List<Double> collusionFraction,
 			List<Double> collusionProbability) {
 		double correct = 1.0d;
 		for (double fraction : collusionFraction)
@@ -544,10 +706,10 @@ class Simulator implements SchedulerListener {
 		Set<Worker> candidates = new HashSet<Worker>(workers);
 		List<CollusionGroup> collusionGroups = new ArrayList<CollusionGroup>();
 		for (int i = 0; i < collusionFraction.size(); i++) {
-			CollusionGroup collusionGroup = new CollusionGroup(
+			CollusionGroup collusionGroup = new CollusionGroup(context,
 					collusionProbability.get(i));
 			Set<Worker> colluders = getRandomSubGroup((int) (collusionFraction
-					.get(i) * workers.size()), candidates, RandomManager
+					.get(i) * workers.size()), candidates, context
 					.getRandom("platform"));
 			collusionGroup.addAll(colluders);
 			candidates.removeAll(colluders);
@@ -560,7 +722,8 @@ class Simulator implements SchedulerListener {
 	 * Builds the groups of inter-collusion.
 	 */
 	private static List<InterCollusionGroup> buildInterCollusionGroup(
-			Set<Worker> workers, List<CollusionGroup> collusionGroups,
+			SimulationContext context, Set<Worker> workers,
+			List<CollusionGroup> collusionGroups,
 			List<List<Integer>> interCollusionFraction,
 			List<Double> interCollusionProbability) {
 		if (interCollusionFraction.size() != interCollusionProbability.size())
@@ -573,7 +736,7 @@ class Simulator implements SchedulerListener {
 				throw new IllegalArgumentException(
 						"Inter-colluders need at least two colluder groups");
 			InterCollusionGroup interColluderGroup = new InterCollusionGroup(
-					interCollusionProbability.get(i));
+					context, interCollusionProbability.get(i));
 			for (int index : interCollusionFraction.get(i))
 				interColluderGroup.add(collusionGroups.get(index));
 			interCollusionGroups.add(interColluderGroup);
@@ -628,13 +791,28 @@ class Simulator implements SchedulerListener {
 		return null;
 	}
 
+	/**
+	 * Instantiates the structure that orders the events chronologically.
+	 */
+	private static EventQueue getEventQueue(String eventQueueClassName) {
+		try {
+			return Class.forName("simdeg.simulation." + eventQueueClassName)
+					.asSubclass(EventQueue.class).getDeclaredConstructor()
+					.newInstance();
+		} catch (ReflectiveOperationException e) {
+			System.err.println("EventQueue " + eventQueueClassName
+					+ " not found");
+			System.exit(1);
+		}
+		return null;
+	}
+
 	public void endOfJobQueue() {
-		if (submittedJobs < jobsNumber && jobsTrace.hasNext()) {
-			for (int i = 0; i < 5; i++)
-				jobsTrace.next();
+		if (submittedJobs < jobsNumber && jobsTrace.next()) {
 			submittedJobs++;
-			final double fops = jobsTrace.nextDouble();
-			final Job job = new Job(completeSetiSettings ? fops : fops / 200);
+			final double fops = jobsTrace.getValue(0);
+			final Job job = new Job(completeSetiSettings ? fops : fops / 200,
+					submittedJobs);
 			logger.fine("Create new job " + job + " with " + fops + " FOPS");
 			scheduler.addJob(job);
 		}
@@ -659,9 +837,15 @@ class Simulator implements SchedulerListener {
 			interCollusionGroup.clear((Job) votingPool.getJob());
 		/* Printing results in the output file */
 		try {
-			output.write(result + " " + votingPool.size() + " "
-					+ (System.currentTimeMillis() - startingTime) + "\n");
-			output.flush();
+			output.write(result.toString());
+			output.write(' ');
+			output.write(Integer.toString(votingPool.size()));
+			output.write(' ');
+			output.write(Long.toString(System.currentTimeMillis()
+					- startingTime));
+			output.write('\n');
+			if (flushInterval > 0 && certifiedJobs % flushInterval == 0)
+				output.flush();
 		} catch (IOException e) {
 			System.err.println("Problem writing in the output file");
 			System.exit(1);
@@ -0,0 +1,187 @@
+package simdeg.simulation;
+
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import simdeg.util.Trace;
+
+/**
+ * Runs a simulation for each point of a grid of parameters in a single JVM.
+ * The points are simulated concurrently, each one in a single thread with its
+ * own {@link SimulationContext}, so that the outputs do not depend on the
+ * number of threads. The traces are parsed once and kept in memory for all
+ * the points.
+ * 
+ * Usage: SweepRunner base.properties [-threads n] key=values...
+ * 
+ * The values of each parameter are either separated by '|' (e.g.
+ * collusionFraction=[0.1]|[0.2,0.1]) or given as a range start:stop:step
+ * (e.g. reliabilityFraction=0.5:0.9:0.1). The output and reputation files of
+ * the i-th point are suffixed by "." + i and the parameters of each point are
+ * written in the output file suffixed by ".points".
+ */
+public class SweepRunner {
+
+	/** Logger */
+	private static final Logger logger = Logger.getLogger(SweepRunner.class
+			.getName());
+
+	/** Properties of each point of the grid */
+	private final List<Properties> points = new ArrayList<Properties>();
+
+	/** Description of each point of the grid */
+	private final List<String> descriptions = new ArrayList<String>();
+
+	private final Properties base;
+
+	/**
+	 * Builds the grid of parameters from the base properties and the values
+	 * of the varying parameters (in the form key=values).
+	 */
+	protected SweepRunner(Properties base, List<String> parameters) {
+		this.base = base;
+		points.add(base);
+		descriptions.add("");
+		for (String parameter : parameters) {
+			final int separator = parameter.indexOf('=');
+			if (separator <= 0)
+				throw new IllegalArgumentException("Parameter " + parameter
+						+ " is not in the form key=values");
+			final String key = parameter.substring(0, separator);
+			final List<String> values = parseValues(parameter
+					.substring(separator + 1));
+			final List<Properties> previousPoints = new ArrayList<Properties>(
+					points);
+			final List<String> previousDescriptions = new ArrayList<String>(
+					descriptions);
+			points.clear();
+			descriptions.clear();
+			for (int i = 0; i < previousPoints.size(); i++)
+				for (String value : values) {
+					final Properties point = new Properties();
+					point.putAll(previousPoints.get(i));
+					point.setProperty(key, value);
+					points.add(point);
+					descriptions.add(previousDescriptions.get(i) + " " + key
+							+ "=" + value);
+				}
+		}
+		for (int i = 0; i < points.size(); i++) {
+			points.get(i).setProperty("outputFile",
+					base.getProperty("outputFile") + "." + i);
+			points.get(i).setProperty("reputationFile",
+					base.getProperty("reputationFile") + "." + i);
+		}
+	}
+
+	/**
+	 * Parses a list of values separated by '|' or a range start:stop:step.
+	 */
+	protected static List<String> parseValues(String values) {
+		final List<String> result = new ArrayList<String>();
+		final String[] range = values.split(":");
+		if (range.length == 3) {
+			final BigDecimal stop = new BigDecimal(range[1]);
+			final BigDecimal step = new BigDecimal(range[2]);
+			if (step.signum() <= 0)
+				throw new IllegalArgumentException("The step of the range "
+						+ values + " must be positive");
+			for (BigDecimal value = new BigDecimal(range[0]); value
+					.compareTo(stop) <= 0; value = value.add(step))
+				result.add(value.toPlainString());
+			return result;
+		}
+		for (String value : values.split("\\|"))
+			result.add(value);
+		return result;
+	}
+
+	protected List<Properties> getPoints() {
+		return points;
+	}
+
+	/**
+	 * Simulates all the points with the given number of threads. Returns the
+	 * number of simulations that failed.
+	 */
+	protected int run(int threads) throws IOException {
+		final FileWriter output = new FileWriter(base
+				.getProperty("outputFile")
+				+ ".points");
+		for (int i = 0; i < points.size(); i++)
+			output.write(i + descriptions.get(i) + "\n");
+		output.close();
+
+		/* Share the traces between the simulations */
+		for (Properties point : points)
+			Simulator.loadTraces(point);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		final List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (final Properties point : points)
+			futures.add(executor.submit(new Runnable() {
+				public void run() {
+					try {
+						new Simulator(point).run();
+					} catch (IOException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			}));
+		executor.shutdown();
+
+		int failures = 0;
+		for (int i = 0; i < futures.size(); i++) {
+			try {
+				futures.get(i).get();
+				logger.info("Point " + i + descriptions.get(i) + " simulated");
+			} catch (ExecutionException e) {
+				System.err.println("Simulation of point " + i
+						+ descriptions.get(i) + " failed");
+				e.getCause().printStackTrace();
+				failures++;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failures++;
+			}
+		}
+		Trace.unloadAll();
+		return failures;
+	}
+
+	public static void main(String[] args) throws IOException {
+		Locale.setDefault(Locale.ENGLISH);
+		if (args.length < 1) {
+			System.err.println("Usage: SweepRunner base.properties"
+					+ " [-threads n] key=values...");
+			System.exit(1);
+		}
+		final Properties base = new Properties();
+		base.load(new FileInputStream(args[0]));
+		int threads = Runtime.getRuntime().availableProcessors();
+		final List<String> parameters = new ArrayList<String>();
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("-threads"))
+				threads = Integer.parseInt(args[++i]);
+			else
+				parameters.add(args[i]);
+		}
+		final SweepRunner runner = new SweepRunner(base, parameters);
+		logger.info(runner.getPoints().size() + " points are simulated with "
+				+ threads + " threads");
+		if (runner.run(threads) != 0)
+			System.exit(1);
+	}
+
+}
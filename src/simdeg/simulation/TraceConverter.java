@@ -0,0 +1,63 @@
+package simdeg.simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+import simdeg.util.BinaryTrace;
+import simdeg.util.Trace;
+
+/**
+ * Converts the text traces read by the {@link Simulator} into binary traces,
+ * which are then detected and read directly by the simulator. Only the
+ * columns that are used during the simulation are kept.
+ * 
+ * Usage: TraceConverter availability|hosts|speeds|jobs input output [-delta]
+ * [-compress]
+ */
+public class TraceConverter {
+
+	public static void main(String[] args) throws IOException {
+		Locale.setDefault(Locale.ENGLISH);
+		if (args.length < 3) {
+			System.err.println("Usage: TraceConverter"
+					+ " availability|hosts|speeds|jobs input output"
+					+ " [-delta] [-compress]");
+			System.exit(1);
+		}
+		final File input = new File(args[1]);
+		final File output = new File(args[2]);
+		boolean delta = false;
+		boolean compressed = false;
+		for (int i = 3; i < args.length; i++) {
+			if (args[i].equals("-delta"))
+				delta = true;
+			else if (args[i].equals("-compress"))
+				compressed = true;
+			else {
+				System.err.println("Unknown option " + args[i]);
+				System.exit(1);
+			}
+		}
+
+		Trace trace = null;
+		int valuesCount = 1;
+		if (args[0].equals("availability")) {
+			trace = Simulator.openAvailabilityTrace(input);
+			valuesCount = 2;
+		} else if (args[0].equals("hosts"))
+			trace = Simulator.openSpeedTrace(input, true);
+		else if (args[0].equals("speeds"))
+			trace = Simulator.openSpeedTrace(input, false);
+		else if (args[0].equals("jobs"))
+			trace = Simulator.openJobsTrace(input);
+		else {
+			System.err.println("Unknown kind of trace " + args[0]);
+			System.exit(1);
+		}
+		BinaryTrace.convert(trace, Trace.getSourceName(input), valuesCount,
+				output, delta, compressed);
+		trace.close();
+	}
+
+}
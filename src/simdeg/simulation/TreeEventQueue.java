@@ -0,0 +1,48 @@
+package simdeg.simulation;
+
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**
+ * Event queue based on a red-black tree.
+ */
+class TreeEventQueue extends EventQueue {
+
+	/** Ordered set of events */
+	private final TreeSet<Event> events = new TreeSet<Event>(
+			new Comparator<Event>() {
+				public int compare(Event arg0, Event arg1) {
+					if (before(arg0, arg1))
+						return -1;
+					if (before(arg1, arg0))
+						return 1;
+					return 0;
+				}
+			});
+
+	protected void add(Event event) {
+		stamp(event);
+		events.add(event);
+	}
+
+	protected boolean remove(Event event) {
+		return events.remove(event);
+	}
+
+	protected Event pollFirst() {
+		return events.pollFirst();
+	}
+
+	protected int size() {
+		return events.size();
+	}
+
+	protected void clear() {
+		events.clear();
+	}
+
+	public String toString() {
+		return "TreeEventQueue";
+	}
+
+}
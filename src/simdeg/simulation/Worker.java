@@ -5,7 +5,7 @@ import java.util.Set;
 import java.util.logging.Logger;
 
 import simdeg.util.HashableObject;
-import simdeg.util.RandomManager;
+import simdeg.util.SplitRandom;
 
 /**
  * Workers are agents that treat more or less successfully the jobs they are
@@ -18,6 +18,12 @@ class Worker extends HashableObject implements simdeg.reputation.Worker {
 	private static final Logger logger = Logger.getLogger(Worker.class
 			.getName());
 
+	/** Simulation to which belongs the worker */
+	private final SimulationContext context;
+
+	/** Random stream of the worker (indexed by the jobs) */
+	private final SplitRandom random;
+
 	/** Speed of the worker in floating operations per second (immutable) */
 	private double fops;
 
@@ -39,12 +45,27 @@ class Worker extends HashableObject implements simdeg.reputation.Worker {
 	/** Event that indicates the timeout for the current job */
 	private ProcessTimeoutEvent processTimeout;
 
+	/** Generation of the completion events (increased at each cancellation) */
+	private int completionGeneration = 0;
+
+	/** Generation of the timeout events (increased at each cancellation) */
+	private int timeoutGeneration = 0;
+
 	/**
 	 * Precedent availability of unavailability event (null means it has never
 	 * be available).
 	 */
 	private Event previousAvailabilityEvent;
 
+	protected Worker(SimulationContext context) {
+		this.context = context;
+		this.random = context.split("reliability");
+	}
+
+	protected SimulationContext getContext() {
+		return context;
+	}
+
 	/**
 	 * Specifies the speed of the worker (called only once).
 	 */
@@ -133,6 +154,30 @@ class Worker extends HashableObject implements simdeg.reputation.Worker {
 		return processTimeout;
 	}
 
+	/**
+	 * Invalidates the current completion event, which becomes stale.
+	 */
+	protected void cancelNextProcessCompletionEvent() {
+		processCompletion = null;
+		completionGeneration++;
+	}
+
+	/**
+	 * Invalidates the current timeout event, which becomes stale.
+	 */
+	protected void cancelNextProcessTimeoutEvent() {
+		processTimeout = null;
+		timeoutGeneration++;
+	}
+
+	protected int getCompletionGeneration() {
+		return completionGeneration;
+	}
+
+	protected int getTimeoutGeneration() {
+		return timeoutGeneration;
+	}
+
 	/**
 	 * Sets the last available of unavailable event.
 	 */
@@ -146,18 +191,19 @@ class Worker extends HashableObject implements simdeg.reputation.Worker {
 
 	/**
 	 * Gets the result for the given job (takes into account the reliability and
-	 * the groups of collusion).
+	 * the groups of collusion). The failure only depends on the worker and on
+	 * the job.
 	 */
 	protected Result getResult(Job job) {
-		if (RandomManager.getRandom("reliability").nextDouble() > reliability) {
+		if (random.getDouble(job.getIndex()) > reliability) {
 			logger.fine("Worker " + this + " fails for job " + job);
-			return Result.getFailedResult();
+			return context.getFailedResult();
 		}
 
 		if (collusionGroup != null && collusionGroup.getResult(job) != null)
 			return collusionGroup.getResult(job);
 
-		return Result.getCorrectResult();
+		return context.getCorrectResult();
 	}
 
 	public String toString() {
@@ -165,31 +211,32 @@ class Worker extends HashableObject implements simdeg.reputation.Worker {
 	}
 
 	public static void main(String[] args) {
+		final SimulationContext context = new SimulationContext();
 		/* Workers creation */
 		Worker[] workers = new Worker[8];
 		for (int i = 0; i < workers.length; i++)
-			workers[i] = new Worker();
+			workers[i] = new Worker(context);
 		/* CollusionGroup creation */
-		CollusionGroup collusionGroup1 = new CollusionGroup(0.45d);
+		CollusionGroup collusionGroup1 = new CollusionGroup(context, 0.45d);
 		collusionGroup1.add(workers[0]);
 		collusionGroup1.add(workers[1]);
-		CollusionGroup collusionGroup2 = new CollusionGroup(0.15d);
+		CollusionGroup collusionGroup2 = new CollusionGroup(context, 0.15d);
 		collusionGroup2.add(workers[2]);
 		collusionGroup2.add(workers[3]);
-		CollusionGroup collusionGroup3 = new CollusionGroup(0.24d);
+		CollusionGroup collusionGroup3 = new CollusionGroup(context, 0.24d);
 		collusionGroup3.add(workers[4]);
 		collusionGroup3.add(workers[5]);
-		CollusionGroup collusionGroup4 = new CollusionGroup(0.2d);
+		CollusionGroup collusionGroup4 = new CollusionGroup(context, 0.2d);
 		collusionGroup4.add(workers[6]);
 		collusionGroup4.add(workers[7]);
 		/* InterCollusionGroup creation */
-		InterCollusionGroup interCollusionGroup1 = new InterCollusionGroup(0.1d);
+		InterCollusionGroup interCollusionGroup1 = new InterCollusionGroup(context, 0.1d);
 		interCollusionGroup1.add(collusionGroup1);
 		interCollusionGroup1.add(collusionGroup2);
-		InterCollusionGroup interCollusionGroup2 = new InterCollusionGroup(0.2d);
+		InterCollusionGroup interCollusionGroup2 = new InterCollusionGroup(context, 0.2d);
 		interCollusionGroup2.add(collusionGroup3);
 		interCollusionGroup2.add(collusionGroup4);
-		InterCollusionGroup interCollusionGroup3 = new InterCollusionGroup(0.4d);
+		InterCollusionGroup interCollusionGroup3 = new InterCollusionGroup(context, 0.4d);
 		interCollusionGroup3.add(collusionGroup2);
 		interCollusionGroup3.add(collusionGroup3);
 		/* Decision tree creation */
@@ -209,13 +256,13 @@ class Worker extends HashableObject implements simdeg.reputation.Worker {
 					&& interCollusionGroup2.getResult(job) == null
 					&& interCollusionGroup3.getResult(job) == null)
 				countNoneInterColluding++;
-			if (collusionGroup1.getResult(job) == Result
+			if (collusionGroup1.getResult(job) == context
 					.getColludedResult(collusionGroup1)
-					&& collusionGroup2.getResult(job) == Result
+					&& collusionGroup2.getResult(job) == context
 							.getColludedResult(collusionGroup2)
-					&& collusionGroup3.getResult(job) == Result
+					&& collusionGroup3.getResult(job) == context
 							.getColludedResult(collusionGroup3)
-					&& collusionGroup4.getResult(job) == Result
+					&& collusionGroup4.getResult(job) == context
 							.getColludedResult(collusionGroup4))
 				countAllIntraColluding++;
 		}
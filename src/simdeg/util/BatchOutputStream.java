@@ -0,0 +1,220 @@
+package simdeg.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Output file in which bytes are gathered in large batches before being
+ * written, optionally compressed with gzip. In asynchronous mode, the batches
+ * are written by a dedicated thread such that the producer never waits for
+ * the disk (unless too many batches are pending). Flushing hands over the
+ * current batch and forces it to the file (in the writing thread for the
+ * asynchronous mode). The batches are the only buffers in front of the file.
+ */
+public class BatchOutputStream extends OutputStream {
+
+	/** Size of each batch */
+	private static final int BATCH_SIZE = 1 << 16;
+
+	/** Number of batches that may wait for being written */
+	private static final int PENDING_BATCHES = 8;
+
+	/** Delay in ms between two checks of the writing thread when it is late */
+	private static final long HAND_OVER_TIMEOUT = 100L;
+
+	/** Marker asking the writing thread to flush the file */
+	private static final byte[] FLUSH = new byte[0];
+
+	/** Marker asking the writing thread to close the file */
+	private static final byte[] CLOSE = new byte[0];
+
+	/** Stream to the file (only used by the writing thread if any) */
+	private final OutputStream output;
+
+	/** Batches waiting for the writing thread (null if synchronous) */
+	private final BlockingQueue<byte[]> pending;
+
+	/** Thread writing the batches (null if synchronous) */
+	private final Thread writer;
+
+	/** Error raised by the writing thread */
+	private volatile IOException failure = null;
+
+	/** Current batch */
+	private byte[] batch = new byte[BATCH_SIZE];
+
+	/** Number of bytes in the current batch */
+	private int count = 0;
+
+	private boolean closed = false;
+
+	public BatchOutputStream(File file, boolean compressed, boolean async)
+			throws IOException {
+		this(new FileOutputStream(file), compressed, async, file.toString());
+	}
+
+	BatchOutputStream(OutputStream stream, boolean compressed, boolean async,
+			String name) throws IOException {
+		this.output = compressed ? new GZIPOutputStream(stream, BATCH_SIZE)
+				: stream;
+		if (!async) {
+			this.pending = null;
+			this.writer = null;
+			return;
+		}
+		this.pending = new ArrayBlockingQueue<byte[]>(PENDING_BATCHES);
+		this.writer = new Thread("Writer of " + name) {
+			public void run() {
+				try {
+					byte[] batch = pending.take();
+					while (batch != CLOSE) {
+						if (batch == FLUSH)
+							output.flush();
+						else
+							output.write(batch);
+						batch = pending.take();
+					}
+				} catch (IOException e) {
+					failure = e;
+				} catch (InterruptedException e) {
+					failure = new IOException("Writer interrupted");
+				} finally {
+					try {
+						output.close();
+					} catch (IOException e) {
+						if (failure == null)
+							failure = e;
+					}
+				}
+			}
+		};
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	private void check() throws IOException {
+		if (closed)
+			throw new IOException("Stream closed");
+		if (failure != null)
+			throw failure;
+	}
+
+	/**
+	 * Gives a batch (or a marker) to the file or to the writing thread. When
+	 * the writing thread is late, its failure is checked regularly instead of
+	 * waiting indefinitely.
+	 */
+	private void handOver(byte[] batch) throws IOException {
+		if (pending == null) {
+			if (batch == FLUSH)
+				output.flush();
+			else
+				output.write(batch);
+			return;
+		}
+		try {
+			if (failure != null)
+				throw failure;
+			while (!pending.offer(batch, HAND_OVER_TIMEOUT,
+					TimeUnit.MILLISECONDS)) {
+				if (failure != null)
+					throw failure;
+				if (!writer.isAlive())
+					throw new IOException("Writer stopped");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while writing");
+		}
+	}
+
+	/**
+	 * Hands over the current batch if it is not empty.
+	 */
+	private void handOverBatch() throws IOException {
+		if (count == 0)
+			return;
+		if (pending == null)
+			output.write(batch, 0, count);
+		else {
+			handOver(count == batch.length ? batch : Arrays
+					.copyOf(batch, count));
+			batch = new byte[BATCH_SIZE];
+		}
+		count = 0;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (count == batch.length) {
+			check();
+			handOverBatch();
+		}
+		batch[count++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			if (count == batch.length) {
+				check();
+				handOverBatch();
+			}
+			final int length = Math.min(len, batch.length - count);
+			System.arraycopy(b, off, batch, count, length);
+			count += length;
+			off += length;
+			len -= length;
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		check();
+		handOverBatch();
+		handOver(FLUSH);
+	}
+
+	/**
+	 * Writes the remaining bytes and closes the file (waits for the writing
+	 * thread to finish). The file is closed even if the writing fails.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+		boolean handedOver = false;
+		try {
+			check();
+			handOverBatch();
+			if (writer != null)
+				handOver(CLOSE);
+			handedOver = true;
+		} finally {
+			closed = true;
+			if (writer == null)
+				output.close();
+			else {
+				/* The writing thread closes the file when it stops */
+				if (!handedOver)
+					writer.interrupt();
+				try {
+					writer.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while closing");
+				}
+			}
+		}
+		if (failure != null)
+			throw failure;
+	}
+
+}
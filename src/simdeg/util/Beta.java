@@ -3,12 +3,15 @@ package simdeg.util;
 import static simdeg.util.InverseMath.inverseIncompleteBeta;
 import static simdeg.util.InverseMath.inverseNormal;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.Locale;
-import java.util.logging.Logger;
 import java.util.logging.Level;
-import java.lang.reflect.Method;
+import java.util.logging.Logger;
 import static java.lang.Math.sqrt;
 
 /**
@@ -23,28 +26,73 @@ public class Beta extends RV {
 	protected static final double DEFAULT_VARIANCE = (DEFAULT_ERROR / 6.0d)
 			* (DEFAULT_ERROR / 6.0d);
 
-	/** Trinary LUT for minimizing calls to complex functions */
-	private static TriLUT<Double, Double, Double, Double> errorValues = null;
-
 	/** Number of values stored in the LUT */
 	private static final int MAX_LUT_INDEX = 100;
 
+	/** Resource containing the precomputed LUT of errors (optional) */
+	private static final String ERROR_VALUES_RESOURCE = "beta-error.lut";
+
+	/** Trinary LUT for minimizing calls to complex functions */
+	private static final TriDoubleLUT errorValues = createErrorValues();
+
+	/**
+	 * Generates a LUT for fastening complex computations whose values are
+	 * computed the first time they are needed.
+	 */
+	private static TriDoubleLUT newErrorValues() {
+		return new TriDoubleLUT(new TriDoubleLUT.Function() {
+			public double compute(double alpha, double beta, double level) {
+				return error(alpha, beta, level);
+			}
+		}, new double[] { 1.0d, MAX_LUT_INDEX + 1.0d, 1.0d }, new double[] {
+				1.0d, MAX_LUT_INDEX + 1.0d, 1.0d }, new double[] {
+				DEFAULT_ERROR_LEVEL, DEFAULT_ERROR_LEVEL, 1.0d });
+	}
+
 	/**
-	 * Generates a LUT for fastening complex computations.
+	 * Generates a LUT for fastening complex computations. Its values are
+	 * loaded from the resource if it is available, or computed the first time
+	 * they are needed otherwise.
 	 */
-	static {
+	private static TriDoubleLUT createErrorValues() {
+		final TriDoubleLUT lut = newErrorValues();
+		final InputStream in = Beta.class
+				.getResourceAsStream(ERROR_VALUES_RESOURCE);
+		if (in == null)
+			return lut;
 		try {
-			Method errorMethod = Beta.class.getMethod("error", Double.TYPE,
-					Double.TYPE, Double.TYPE);
-			errorValues = new TriLUT<Double, Double, Double, Double>(
-					errorMethod, new Double[] { 1.0d, MAX_LUT_INDEX + 1.0d,
-							1.0d }, new Double[] { 1.0d, MAX_LUT_INDEX + 1.0d,
-							1.0d }, new Double[] { DEFAULT_ERROR_LEVEL,
-							DEFAULT_ERROR_LEVEL, 1.0d });
-		} catch (NoSuchMethodException e) {
-			logger.log(Level.SEVERE, "The method error was not found", e);
+			try {
+				lut.load(in);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			logger.log(Level.WARNING, "The precomputed errors cannot be loaded "
+					+ "from " + ERROR_VALUES_RESOURCE, e);
+		}
+		return lut;
+	}
+
+	/**
+	 * Saves the LUT of errors in the given file, such that it can be loaded
+	 * as a resource next to this class (done when building the jars). The
+	 * errors are always recomputed, such that a table saved previously is
+	 * never copied over.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("Usage: java simdeg.util.Beta <file>");
 			System.exit(1);
 		}
+		final long start = System.currentTimeMillis();
+		final OutputStream out = new FileOutputStream(args[0]);
+		try {
+			newErrorValues().save(out);
+		} finally {
+			out.close();
+		}
+		System.out.println("LUT of errors saved in " + args[0] + " in "
+				+ (System.currentTimeMillis() - start) + " ms");
 	}
 
 	/** Principal paramater representing quantity of one values */
@@ -127,6 +175,15 @@ public class Beta extends RV {
 	public double getMean() {
 		if (alpha == 0.0d && beta == 0.0d)
 			return bernoulli * (upper - lower) + lower;
+		return getMean(alpha, beta, lower, upper);
+	}
+
+	/**
+	 * Gives the mean of a Beta distribution with the given parameters and
+	 * range (alpha or beta must be positive).
+	 */
+	static double getMean(double alpha, double beta, double lower,
+			double upper) {
 		return alpha / (alpha + beta) * (upper - lower) + lower;
 	}
 
@@ -135,9 +192,18 @@ public class Beta extends RV {
 		if (alpha == 0.0d && beta == 0.0d)
 			return bernoulli * (1.0d - bernoulli) * (this.upper - this.lower)
 					* (this.upper - this.lower);
+		return getVariance(alpha, beta, lower, upper);
+	}
+
+	/**
+	 * Gives the variance of a Beta distribution with the given parameters and
+	 * range (alpha or beta must be positive).
+	 */
+	static double getVariance(double alpha, double beta, double lower,
+			double upper) {
 		return alpha * beta
 				/ ((alpha + beta) * (alpha + beta) * (alpha + beta + 1.0d))
-				* (this.upper - this.lower) * (this.upper - this.lower);
+				* (upper - lower) * (upper - lower);
 	}
 
 	public double getError() {
@@ -148,20 +214,35 @@ public class Beta extends RV {
 	 * Gives the current error with a predefined confidence level.
 	 */
 	private double getError(double level) {
+		/* Simple Bernoulli RV (Gaussian approximation) */
+		if (alpha == 0.0d && beta == 0.0d)
+			return getMean()
+					- inverseNormal((1.0d - level) / 2.0d, getMean(),
+							getVariance());
+		return getError(alpha, beta, lower, upper, level);
+	}
+
+	/**
+	 * Gives the error of a Beta distribution with the given parameters and
+	 * range (alpha or beta must be positive) with a confidence level.
+	 */
+	static double getError(double alpha, double beta, double lower,
+			double upper, double level) {
 		/* Optimization */
 		if ((alpha == 0.0d || beta == 0.0d) && alpha != beta)
 			return 0.0d;
 
 		/* Gaussian method (approximation for high value of alpha and beta) */
 		if (alpha > MAX_LUT_INDEX + 1.0d || beta > MAX_LUT_INDEX + 1.0d
-				|| alpha < 1.0d || beta < 1.0d)
-			return getMean()
-					- inverseNormal((1.0d - level) / 2.0d, getMean(),
-							getVariance());
+				|| alpha < 1.0d || beta < 1.0d) {
+			final double mean = getMean(alpha, beta, lower, upper);
+			return mean
+					- inverseNormal((1.0d - level) / 2.0d, mean, getVariance(
+							alpha, beta, lower, upper));
+		}
 
 		/* More accurate method (longer) */
-		return errorValues.getValue(alpha, beta, level)
-				* (this.upper - this.lower);
+		return errorValues.getValue(alpha, beta, level) * (upper - lower);
 	}
 
 	public static final double error(double alpha, double beta, double level) {
@@ -246,11 +327,19 @@ public class Beta extends RV {
 	}
 
 	public String toString() {
+		return super.toString()
+				+ toString(alpha, beta, getLowerEndpoint(), getUpperEndpoint());
+	}
+
+	/**
+	 * Gives the representation of the parameters and of the range.
+	 */
+	static String toString(double alpha, double beta, double lower,
+			double upper) {
 		DecimalFormat df = new DecimalFormat("0.##", new DecimalFormatSymbols(
 				Locale.ENGLISH));
-		return super.toString() + "/(" + df.format(alpha) + ","
-				+ df.format(beta) + "," + df.format(getLowerEndpoint()) + ","
-				+ df.format(getUpperEndpoint()) + ")";
+		return "/(" + df.format(alpha) + "," + df.format(beta) + ","
+				+ df.format(lower) + "," + df.format(upper) + ")";
 	}
 
 }
\ No newline at end of file
@@ -9,41 +9,56 @@ import static java.lang.Math.sqrt;
 import static simdeg.util.InverseMath.inverseStandardNormal;
 
 /**
- * Estimator for Bernoulli Trial only. It is based on Bayesian estimation.
+ * Estimator for Bernoulli Trial only. It is based on Bayesian estimation. The
+ * parameters of the underlying Beta distribution are only accessed through
+ * getAlpha, getBeta, setAlpha and setBeta, such that they may be stored
+ * outside of the estimator (see BetaEstimatorStore).
  */
 public class BetaEstimator extends Estimator {
 
 	/** Allows to limit the errors done */
 	private static final double EPSILON = 1E-5;
 
-	private Beta beta = new Beta();
+	/** Parameter of the Beta distribution representing one values */
+	private double alpha = 1.0d;
 
-	protected double getLowerEndpoint() {
-		return beta.getLowerEndpoint();
-	}
-
-	protected double getUpperEndpoint() {
-		return beta.getUpperEndpoint();
-	}
+	/** Parameter of the Beta distribution representing zero values */
+	private double beta = 1.0d;
 
 	public double getMean() {
-		return beta.getMean();
+		return Beta.getMean(getAlpha(), getBeta(), lower, upper);
 	}
 
 	public double getError() {
-		return beta.getError();
+		return Beta.getError(getAlpha(), getBeta(), lower, upper,
+				DEFAULT_ERROR_LEVEL);
 	}
 
 	public double getVariance() {
-		return beta.getVariance();
+		return Beta.getVariance(getAlpha(), getBeta(), lower, upper);
 	}
 
 	protected double getAlpha() {
-		return beta.getAlpha();
+		return alpha;
 	}
 
 	protected double getBeta() {
-		return beta.getBeta();
+		return beta;
+	}
+
+	protected void setAlpha(double alpha) {
+		checkParameter(alpha);
+		this.alpha = alpha;
+	}
+
+	protected void setBeta(double beta) {
+		checkParameter(beta);
+		this.beta = beta;
+	}
+
+	static void checkParameter(double parameter) {
+		if (parameter < 0.0d)
+			throw new OutOfRangeException(parameter, 0.0d, Double.MAX_VALUE);
 	}
 
 	/**
@@ -51,7 +66,6 @@ public class BetaEstimator extends Estimator {
 	 */
 	public BetaEstimator() {
 		super(0.0d, 1.0d);
-		clear();
 	}
 
 	/**
@@ -71,13 +85,24 @@ public class BetaEstimator extends Estimator {
 			throw new OutOfRangeException(alpha, 1.0d, Double.MAX_VALUE);
 		if (beta < 1.0d)
 			throw new OutOfRangeException(beta, 1.0d, Double.MAX_VALUE);
-		this.beta = new Beta(0.0d, 1.0d, alpha, beta);
+		this.alpha = alpha;
+		this.beta = beta;
 	}
 
 	public BetaEstimator clone() {
 		return new BetaEstimator(getAlpha(), getBeta());
 	}
 
+	/**
+	 * Packs the parameters of the stored estimators in arrays, unless a
+	 * subclass may hold more information than these parameters.
+	 */
+	public EstimatorStore createStore() {
+		if (getClass() != BetaEstimator.class)
+			return super.createStore();
+		return new BetaEstimatorStore();
+	}
+
 	private final double roundIfNearInt(double value) {
 		final double rounded = round(value);
 		if (abs(rounded - value) < EPSILON)
@@ -88,7 +113,6 @@ public class BetaEstimator extends Estimator {
 	protected BetaEstimator set(double lower, double upper, double estimate,
 			double variance) {
 		super.set(lower, upper, estimate, variance);
-		beta.setRange(lower, upper);
 
 		/* Normalize estimate and variance */
 		double normalizedEstimate = Math.max(0.0d, Math.min(1.0d,
@@ -111,14 +135,17 @@ public class BetaEstimator extends Estimator {
 		if (estimate == getMean() && variance == getVariance())
 			return this;
 
-		beta.set(lower, upper, normalizedEstimate * (upper - lower) + lower,
+		final Beta fitted = new Beta();
+		fitted.set(lower, upper, normalizedEstimate * (upper - lower) + lower,
 				normalizedVariance * (upper - lower) * (upper - lower));
+		setAlpha(fitted.getAlpha());
+		setBeta(fitted.getBeta());
 
 		/* For keeping errors low */
 		if (round(getAlpha()) != 0.0d)
-			beta.setAlpha(roundIfNearInt(getAlpha()));
+			setAlpha(roundIfNearInt(getAlpha()));
 		if (round(getBeta()) != 0.0d)
-			beta.setBeta(roundIfNearInt(getBeta()));
+			setBeta(roundIfNearInt(getBeta()));
 
 		return this;
 	}
@@ -141,11 +168,11 @@ public class BetaEstimator extends Estimator {
 								/ normalizedVariance)))
 						/ 3.0d + PI / 6.0d) - 4.0d / 3.0d;
 		if (normalizedEstimate < 0.5d) {
-			beta.setAlpha(1.0d);
-			beta.setBeta(alpha);
+			setAlpha(1.0d);
+			setBeta(alpha);
 		} else {
-			beta.setAlpha(alpha);
-			beta.setBeta(1.0d);
+			setAlpha(alpha);
+			setBeta(1.0d);
 		}
 		return this;
 	}
@@ -155,11 +182,10 @@ public class BetaEstimator extends Estimator {
 	 */
 	protected BetaEstimator opposite() {
 		super.set(-this.upper, -this.lower, 0.0d, 0.0d);
-		beta.setRange(this.lower, this.upper);
 		final double alphaValue = getBeta();
 		final double betaValue = getAlpha();
-		beta.setAlpha(alphaValue);
-		beta.setBeta(betaValue);
+		setAlpha(alphaValue);
+		setBeta(betaValue);
 		return this;
 	}
 
@@ -171,9 +197,9 @@ public class BetaEstimator extends Estimator {
 			throw new IllegalArgumentException(
 					"Estimator designed for Bernoulli trial only");
 		if (value == 1.0d)
-			beta.setAlpha(getAlpha() + 1.0d);
+			setAlpha(getAlpha() + 1.0d);
 		else
-			beta.setBeta(getBeta() + 1.0d);
+			setBeta(getBeta() + 1.0d);
 	}
 
 	/**
@@ -200,24 +226,79 @@ public class BetaEstimator extends Estimator {
 	}
 
 	public BetaEstimator clear() {
-		beta.setAlpha(1.0d);
-		beta.setBeta(1.0d);
+		setAlpha(1.0d);
+		setBeta(1.0d);
 		return this;
 	}
 
 	public BetaEstimator merge(Estimator estimator) {
 		final BetaEstimator cast = (BetaEstimator) estimator;
 		final double count = Math.max(getSampleCount(), cast.getSampleCount());
-		beta.setAlpha(Math.max(getAlpha(), cast.getAlpha()));
-		beta.setBeta(Math.max(getBeta(), cast.getBeta()));
+		setAlpha(Math.max(getAlpha(), cast.getAlpha()));
+		setBeta(Math.max(getBeta(), cast.getBeta()));
 		final double ratio = (count + 2.0d) / (getSampleCount() + 2.0d);
-		beta.setAlpha(getAlpha() * ratio);
-		beta.setBeta(getBeta() * ratio);
+		setAlpha(getAlpha() * ratio);
+		setBeta(getBeta() * ratio);
 		return this;
 	}
 
+	/**
+	 * Gives a read-only view that is still a BetaEstimator (such that it can
+	 * be merged with other BetaEstimators).
+	 */
+	public BetaEstimator readOnly() {
+		return new ReadOnly(this);
+	}
+
 	public String toString() {
-		return beta.toString();
+		return super.toString()
+				+ Beta.toString(getAlpha(), getBeta(), lower, upper);
+	}
+
+	/**
+	 * Read-only view on a BetaEstimator. All the modifications either go
+	 * through set, opposite, setAlpha or setBeta, which throw an
+	 * UnsupportedOperationException before changing anything.
+	 */
+	private static class ReadOnly extends BetaEstimator {
+
+		private final BetaEstimator estimator;
+
+		private ReadOnly(BetaEstimator estimator) {
+			this.estimator = estimator;
+			this.lower = estimator.lower;
+			this.upper = estimator.upper;
+		}
+
+		protected double getAlpha() {
+			return estimator.getAlpha();
+		}
+
+		protected double getBeta() {
+			return estimator.getBeta();
+		}
+
+		protected void setAlpha(double alpha) {
+			throw new UnsupportedOperationException("Read-only estimator");
+		}
+
+		protected void setBeta(double beta) {
+			throw new UnsupportedOperationException("Read-only estimator");
+		}
+
+		public BetaEstimator clone() {
+			return estimator.clone();
+		}
+
+		protected BetaEstimator set(double lower, double upper,
+				double estimate, double variance) {
+			throw new UnsupportedOperationException("Read-only estimator");
+		}
+
+		protected BetaEstimator opposite() {
+			throw new UnsupportedOperationException("Read-only estimator");
+		}
+
 	}
 
 }
\ No newline at end of file
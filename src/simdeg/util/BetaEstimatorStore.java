@@ -0,0 +1,110 @@
+package simdeg.util;
+
+import java.util.Arrays;
+
+/**
+ * Store packing the parameters of BetaEstimators in two arrays. The
+ * estimators obtained from the store are lightweight views on these arrays.
+ * The range of the stored estimators is [0, 1]: operations changing the range
+ * of a view throw an UnsupportedOperationException (they must be applied to a
+ * clone).
+ */
+class BetaEstimatorStore extends EstimatorStore {
+
+	/** Parameters representing one values */
+	private double[] alphas = new double[16];
+
+	/** Parameters representing zero values */
+	private double[] betas = new double[16];
+
+	/** View reused when an estimator is only scanned */
+	private final View cursor = new View(0);
+
+	public BetaEstimator get(int id) {
+		return new View(id);
+	}
+
+	public void set(int id, Estimator estimator) {
+		final BetaEstimator cast = (BetaEstimator) estimator;
+		alphas[id] = cast.getAlpha();
+		betas[id] = cast.getBeta();
+	}
+
+	public void setSample(int id, double value) {
+		cursor.id = id;
+		cursor.setSample(value);
+	}
+
+	public double getSampleCount(int id) {
+		cursor.id = id;
+		return cursor.getSampleCount();
+	}
+
+	public double getSampleCount(int id, double value) {
+		cursor.id = id;
+		return cursor.getSampleCount(value);
+	}
+
+	public double getError(int id) {
+		cursor.id = id;
+		return cursor.getError();
+	}
+
+	protected void clear(int id) {
+		alphas[id] = 1.0d;
+		betas[id] = 1.0d;
+	}
+
+	protected void ensureCapacity(int capacity) {
+		if (capacity > alphas.length) {
+			final int length = Math.max(capacity, 2 * alphas.length);
+			alphas = Arrays.copyOf(alphas, length);
+			betas = Arrays.copyOf(betas, length);
+		}
+	}
+
+	/**
+	 * Estimator whose parameters are stored in the arrays. All the range
+	 * changes go through set or opposite, which are forbidden as they would
+	 * write the parameters of another range in the arrays.
+	 */
+	private class View extends BetaEstimator {
+
+		private int id;
+
+		private View(int id) {
+			this.id = id;
+		}
+
+		protected double getAlpha() {
+			return alphas[id];
+		}
+
+		protected double getBeta() {
+			return betas[id];
+		}
+
+		protected void setAlpha(double alpha) {
+			checkParameter(alpha);
+			alphas[id] = alpha;
+		}
+
+		protected void setBeta(double beta) {
+			checkParameter(beta);
+			betas[id] = beta;
+		}
+
+		protected BetaEstimator set(double lower, double upper,
+				double estimate, double variance) {
+			throw new UnsupportedOperationException(
+					"Range of a stored estimator");
+		}
+
+		protected BetaEstimator opposite() {
+			throw new UnsupportedOperationException(
+					"Range of a stored estimator");
+		}
+
+	}
+
+}
@@ -0,0 +1,83 @@
+package simdeg.util;
+
+import java.util.logging.Logger;
+
+/**
+ * Class creating Look-Up Table objects containing previously computed
+ * results. For binary functions of doubles (with bilinear interpolation if
+ * requested).
+ */
+public final class BiDoubleLUT extends DoubleLUT {
+
+    /** Logger */
+    private static final Logger logger
+        = Logger.getLogger(BiDoubleLUT.class.getName());
+
+    /**
+     * Function to which we want to minimize calls.
+     */
+    public interface Function {
+        double compute(double x, double y);
+    }
+
+    private final Function function;
+
+    /** Lower bounds of the ranges */
+    private final double lower1, lower2;
+
+    /** Inverses of the steps of the ranges */
+    private final double scale1, scale2;
+
+    /** Numbers of samples (the sample (i, j) is at i * sample2 + j) */
+    private final int sample1, sample2;
+
+    /**
+     * Constructs the LUT for the ranges {lower, upper, step} without
+     * interpolation.
+     */
+    public BiDoubleLUT(Function function, double[] range1, double[] range2) {
+        this(function, range1, range2, false);
+    }
+
+    public BiDoubleLUT(Function function, double[] range1, double[] range2,
+            boolean interpolated) {
+        super(interpolated, range1, range2);
+        this.function = function;
+        this.lower1 = range1[0];
+        this.lower2 = range2[0];
+        this.scale1 = 1.0d / range1[2];
+        this.scale2 = 1.0d / range2[2];
+        this.sample1 = getSample(range1);
+        this.sample2 = getSample(range2);
+    }
+
+    protected double computeValue(int index) {
+        return function.compute(getValueIndex(index / sample2, 0),
+                getValueIndex(index % sample2, 1));
+    }
+
+    /**
+     * Standard method for retrieving a given value.
+     */
+    public double getValue(double x, double y) {
+        final double xPosition = getPosition(x, lower1, scale1, sample1);
+        final double yPosition = getPosition(y, lower2, scale2, sample2);
+        if (xPosition < 0.0d || yPosition < 0.0d) {
+            logger.fine("Value out of the range stored in the LUT");
+            return function.compute(x, y);
+        }
+        final int i = (int) xPosition;
+        final int j = (int) yPosition;
+        if (!interpolated)
+            return getStoredValue(i * sample2 + j);
+        final int nextI = Math.min(i + 1, sample1 - 1);
+        final int nextJ = Math.min(j + 1, sample2 - 1);
+        final double yWeight = yPosition - j;
+        return interpolate(interpolate(getStoredValue(i * sample2 + j),
+                    getStoredValue(i * sample2 + nextJ), yWeight),
+                interpolate(getStoredValue(nextI * sample2 + j),
+                    getStoredValue(nextI * sample2 + nextJ), yWeight),
+                xPosition - i);
+    }
+
+}
@@ -0,0 +1,212 @@
+package simdeg.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.InputMismatchException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact binary trace. The file starts with a header (magic number, flags,
+ * number of values and name of the converted trace) followed by fixed-width
+ * records made of an int id and double values. When delta encoding is used,
+ * each id is stored as the difference with the previous one and the bits of
+ * each value are xored with the bits of the previous value of the same
+ * column, which keeps the values exact while making them easier to compress.
+ * The records may also be compressed by blocks with the deflate algorithm.
+ */
+public class BinaryTrace extends Trace {
+
+	/** First bytes of any binary trace */
+	static final int MAGIC = 0x53444742;
+
+	/** Version of the format */
+	private static final int VERSION = 1;
+
+	/** Flag specifying that the records are delta encoded */
+	private static final int DELTA = 1;
+
+	/** Flag specifying that the records are compressed */
+	private static final int COMPRESSED = 2;
+
+	/** Size of the blocks that are read or compressed at once */
+	private static final int BLOCK_SIZE = 1 << 16;
+
+	private final DataInputStream input;
+
+	private final boolean delta;
+
+	/** Id of the current record */
+	private int id = 0;
+
+	/** Values of the current record */
+	private final double[] values;
+
+	/** Bits of the values of the current record */
+	private final long[] bits;
+
+	protected BinaryTrace(File file, int valuesCount) throws IOException {
+		final InputStream stream = new FileInputStream(file);
+		final DataInputStream header = new DataInputStream(stream);
+		final int flags;
+		final int count;
+		try {
+			readVersion(header, file);
+			flags = header.readInt();
+			count = header.readInt();
+			header.readUTF();
+			if (count != valuesCount)
+				throw new IOException("Binary trace " + file + " contains "
+						+ count + " values per record instead of "
+						+ valuesCount);
+		} catch (IOException e) {
+			stream.close();
+			throw e;
+		}
+		this.delta = (flags & DELTA) != 0;
+		if ((flags & COMPRESSED) != 0)
+			this.input = new DataInputStream(new BufferedInputStream(
+					new InflaterInputStream(stream), BLOCK_SIZE));
+		else
+			this.input = new DataInputStream(new BufferedInputStream(stream,
+					BLOCK_SIZE));
+		this.values = new double[count];
+		this.bits = new long[count];
+	}
+
+	private static void readVersion(DataInputStream header, File file)
+			throws IOException {
+		if (header.readInt() != MAGIC || header.readInt() != VERSION)
+			throw new IOException("Unsupported binary trace " + file);
+	}
+
+	/**
+	 * Gives the name of the trace that was converted in the binary trace.
+	 */
+	public static String getSourceName(File file) throws IOException {
+		final DataInputStream header = new DataInputStream(
+				new FileInputStream(file));
+		try {
+			readVersion(header, file);
+			header.readInt();
+			header.readInt();
+			return header.readUTF();
+		} finally {
+			header.close();
+		}
+	}
+
+	/**
+	 * Moves to the next record. A file ending in the middle of a record is
+	 * not a normal end of the trace.
+	 */
+	public boolean next() {
+		try {
+			final int first = input.read();
+			if (first < 0)
+				return false;
+			final int value = first << 24 | input.readUnsignedByte() << 16
+					| input.readUnsignedByte() << 8 | input.readUnsignedByte();
+			id = delta ? id + value : value;
+			for (int i = 0; i < bits.length; i++) {
+				final long read = input.readLong();
+				bits[i] = delta ? bits[i] ^ read : read;
+				values[i] = Double.longBitsToDouble(bits[i]);
+			}
+			return true;
+		} catch (EOFException e) {
+			throw new IllegalStateException("Truncated trace", e);
+		} catch (IOException e) {
+			throw new IllegalStateException("Problem reading the trace", e);
+		}
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public double getValue(int i) {
+		return values[i];
+	}
+
+	public void close() {
+		try {
+			input.close();
+		} catch (IOException e) {
+			throw new IllegalStateException("Problem closing the trace", e);
+		}
+	}
+
+	/**
+	 * Writes all the records of a trace in a binary trace. Values that are
+	 * not numbers in a text trace are stored as NaN.
+	 */
+	public static void convert(Trace trace, int valuesCount, File file,
+			boolean delta, boolean compressed) throws IOException {
+		convert(trace, file.getName(), valuesCount, file, delta, compressed);
+	}
+
+	/**
+	 * Writes all the records of a trace in a binary trace, recording the
+	 * name of the converted trace in the header.
+	 */
+	public static void convert(Trace trace, String sourceName,
+			int valuesCount, File file, boolean delta, boolean compressed)
+			throws IOException {
+		final OutputStream stream = new FileOutputStream(file);
+		final Deflater deflater = compressed ? new Deflater(
+				Deflater.BEST_SPEED) : null;
+		try {
+			final DataOutputStream header = new DataOutputStream(stream);
+			header.writeInt(MAGIC);
+			header.writeInt(VERSION);
+			header.writeInt((delta ? DELTA : 0)
+					| (compressed ? COMPRESSED : 0));
+			header.writeInt(valuesCount);
+			header.writeUTF(sourceName);
+			header.flush();
+			final DataOutputStream output;
+			if (compressed)
+				output = new DataOutputStream(new DeflaterOutputStream(stream,
+						deflater, BLOCK_SIZE));
+			else
+				output = new DataOutputStream(new BufferedOutputStream(stream,
+						BLOCK_SIZE));
+			int previousId = 0;
+			final long[] previousBits = new long[valuesCount];
+			while (trace.next()) {
+				final int id = trace.getId();
+				output.writeInt(delta ? id - previousId : id);
+				previousId = id;
+				for (int i = 0; i < valuesCount; i++) {
+					double value;
+					try {
+						value = trace.getValue(i);
+					} catch (InputMismatchException e) {
+						value = Double.NaN;
+					}
+					final long bits = Double.doubleToRawLongBits(value);
+					output.writeLong(delta ? bits ^ previousBits[i] : bits);
+					previousBits[i] = bits;
+				}
+			}
+			output.close();
+		} finally {
+			/* A deflater given to the stream is not ended by the stream */
+			stream.close();
+			if (deflater != null)
+				deflater.end();
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+package simdeg.util;
+
+import java.util.Arrays;
+
+/**
+ * Store keeping each estimator as a distinct object (suitable for any kind of
+ * estimator).
+ */
+class ClonedEstimatorStore extends EstimatorStore {
+
+	/** Estimator without information that is cloned for each new one */
+	private final Estimator cleared;
+
+	private Estimator[] estimators = new Estimator[16];
+
+	ClonedEstimatorStore(Estimator estimator) {
+		this.cleared = estimator.clone().clear();
+	}
+
+	public Estimator get(int id) {
+		return estimators[id];
+	}
+
+	public void set(int id, Estimator estimator) {
+		estimators[id] = estimator;
+	}
+
+	public void remove(int id) {
+		estimators[id] = null;
+		super.remove(id);
+	}
+
+	protected void clear(int id) {
+		estimators[id] = cleared.clone();
+	}
+
+	protected void ensureCapacity(int capacity) {
+		if (capacity > estimators.length)
+			estimators = Arrays.copyOf(estimators, Math.max(capacity,
+					2 * estimators.length));
+	}
+
+}
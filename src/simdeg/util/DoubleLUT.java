@@ -0,0 +1,137 @@
+package simdeg.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class creating Look-Up Table objects containing previously computed
+ * results of functions of doubles. The results are kept in flat arrays and
+ * the indices are obtained with a precomputed scale, without any boxing.
+ * Between two samples, either the nearest lower sample is returned or the
+ * results are linearly interpolated. Values out of the ranges are computed by
+ * the function.
+ *
+ * Each sample is computed the first time it is needed, which is safe when
+ * the LUT is shared by several threads (the function may then be called more
+ * than once for the same sample). The samples may also be saved and loaded
+ * from a stream to avoid computing them in each execution.
+ */
+abstract class DoubleLUT {
+
+    /** Bits of the samples not computed yet (a NaN never produced) */
+    private static final long MISSING = 0x7ff0000000000001L;
+
+    /** Whether values between the samples are linearly interpolated */
+    protected final boolean interpolated;
+
+    /** Ranges {lower, upper, step} of each dimension */
+    private final double[][] ranges;
+
+    /** Bits of the samples (the last dimension varies the fastest) */
+    private final AtomicLongArray values;
+
+    protected DoubleLUT(boolean interpolated, double[]... ranges) {
+        this.interpolated = interpolated;
+        this.ranges = ranges;
+        int size = 1;
+        for (double[] range : ranges)
+            size *= getSample(range);
+        values = new AtomicLongArray(size);
+        for (int i=0; i<size; i++)
+            values.set(i, MISSING);
+    }
+
+    /**
+     * Number of samples in the range {lower, upper, step}.
+     */
+    protected static int getSample(double[] range) {
+        if (range.length != 3 || range[0] > range[1] || !(range[2] > 0.0d))
+            throw new IllegalArgumentException("Range is not admissible: "
+                    + Arrays.toString(range));
+        return (int) ((range[1] - range[0]) / range[2]) + 1;
+    }
+
+    /**
+     * Value of the sample at the given index in the given dimension.
+     */
+    protected final double getValueIndex(int i, int dimension) {
+        return ranges[dimension][0] + i * ranges[dimension][2];
+    }
+
+    /**
+     * Gives the position of x in number of steps from the lower bound of the
+     * range, or a negative value if x is not covered by the samples.
+     */
+    protected final double getPosition(double x, double lower, double scale,
+            int sample) {
+        final double position = (x - lower) * scale;
+        if (position >= 0.0d
+                && (interpolated ? position <= sample - 1 : position < sample))
+            return position;
+        return -1.0d;
+    }
+
+    protected static double interpolate(double value1, double value2,
+            double weight) {
+        return value1 + (value2 - value1) * weight;
+    }
+
+    /**
+     * Calls the function for the sample at the given flat index.
+     */
+    protected abstract double computeValue(int index);
+
+    /**
+     * Gives the sample at the given flat index (computed if needed).
+     */
+    protected final double getStoredValue(int index) {
+        final long bits = values.get(index);
+        if (bits != MISSING)
+            return Double.longBitsToDouble(bits);
+        final double value = computeValue(index);
+        values.set(index, Double.doubleToRawLongBits(value));
+        return value;
+    }
+
+    /**
+     * Writes every sample (computed if needed) after the ranges.
+     */
+    public void save(OutputStream out) throws IOException {
+        final DataOutputStream data = new DataOutputStream(
+                new BufferedOutputStream(out));
+        data.writeInt(ranges.length);
+        for (double[] range : ranges)
+            for (double bound : range)
+                data.writeDouble(bound);
+        for (int i=0; i<values.length(); i++)
+            data.writeDouble(getStoredValue(i));
+        data.flush();
+    }
+
+    /**
+     * Reads the samples written by save from a LUT with the same ranges.
+     */
+    public void load(InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(
+                new BufferedInputStream(in));
+        boolean valid = data.readInt() == ranges.length;
+        for (int i=0; valid && i<ranges.length; i++)
+            for (double bound : ranges[i])
+                valid &= data.readDouble() == bound;
+        if (!valid)
+            throw new IOException("The saved LUT has different ranges");
+        final double[] loaded = new double[values.length()];
+        for (int i=0; i<loaded.length; i++)
+            loaded[i] = data.readDouble();
+        for (int i=0; i<loaded.length; i++)
+            values.set(i, Double.doubleToRawLongBits(loaded[i]));
+    }
+
+}
@@ -1,19 +1,27 @@
 package simdeg.util;
 
-import static simdeg.util.Collections.addElement;
-
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Arrays;
 import java.util.NoSuchElementException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Matrix containing informations between sets of element. Splitting and
- * merging related operations are available.
+ * merging related operations are available. The sets are maintained by a
+ * partition of the elements. Each set has an integer identifier (reused when
+ * the set is removed) and the estimators are indexed by the position of the
+ * pair of identifiers in a lower triangular matrix. The estimators are kept
+ * in a store created by the base estimator (which packs their parameters for
+ * BetaEstimators). Pairs of sets without any information share the same
+ * cleared estimator, which is not indexed and only given as read-only. The
+ * row of the largest set is summarized incrementally (subclasses may extend
+ * the summary), such that aggregates like the general error are given in
+ * constant time.
  */
 public class DynamicMatrix<E> {
 
@@ -21,73 +29,113 @@ public class DynamicMatrix<E> {
     private static final Logger logger
         = Logger.getLogger(DynamicMatrix.class.getName());
 
-    /** Matrix containing an estimator for each pair of sets */
-    private final Map<Set<E>,Map<Set<E>,Estimator>> matrix
-        = new HashMap<Set<E>,Map<Set<E>,Estimator>>();
+    /**
+     * Identifiers in the store of the estimators that differ from the cleared
+     * one (the pair of set identifiers i >= j is at index i * (i + 1) / 2 + j)
+     */
+    private final LongIntMap matrix = new LongIntMap();
+
+    /** Sets indexed by their identifier (null if the identifier is free) */
+    private final List<Partition<E>.Group> groups
+        = new ArrayList<Partition<E>.Group>();
 
-    /** Optimization members */
-    private final Map<E,Set<E>> reverse = new HashMap<E,Set<E>>();
+    /** Identifiers of the removed sets that can be reused */
+    private int[] freeIds = new int[16];
 
-    /** Biggest set */
-    private Set<E> largest = null;
+    /** Number of identifiers that can be reused */
+    private int freeIdsCount = 0;
+
+    /** Sets of elements */
+    private final Partition<E> partition = new Partition<E>();
 
     /** Estimator that will be cloned everywhere (directly on the diagonal) */
     private final Estimator estimatorBase;
 
+    /** Estimators of the matrix */
+    private final EstimatorStore estimators;
+
+    /** Identifier of the shared estimator without information */
+    private final int cleared;
+
+    /** Read-only view on the shared estimator without information */
+    private final Estimator clearedEstimator;
+
+    /** Number of modifications of the sets or of the estimators */
+    private long version = 0L;
+
+    /** Largest set whose row is summarized (null if it must be rebuilt) */
+    private Partition<E>.Group summarized = null;
+
+    /** Sum of the errors of the estimators in the row of the largest set */
+    private double errorSum = 0.0d;
+
+    /** Contribution of each set (by identifier) to the sum of errors */
+    private double[] errors = new double[16];
+
     protected DynamicMatrix(Estimator estimatorBase) {
         this.estimatorBase = estimatorBase;
+        this.estimators = estimatorBase.createStore();
+        this.cleared = estimators.add();
+        this.clearedEstimator = estimators.get(cleared).readOnly();
     }
 
     public void addAll(Collection<? extends E> elements) {
-        /* Create new singleton sets and update reverse */
+        /* Create new singleton sets */
         for (E element : elements)
-            if (!reverse.containsKey(element))
-                reverse.put(element, addElement(element, new HashSet<E>()));
+            partition.add(element);
         /* Add and complete last rows */
         Set<Set<E>> sets = getSets(elements);
         for (Set<E> set : sets)
-            insertSet(set);
-        largest = null;
+            insertSet((Partition<E>.Group) set);
+        version++;
     }
 
     public void removeAll(Collection<? extends E> elements) {
         Collection<E> elementsToRemove = new HashSet<E>();
         for (E element : elements)
-            if (reverse.containsKey(element))
+            if (partition.contains(element))
                 elementsToRemove.add(element);
         /* For each concerned set */
         final Set<Set<E>> sets = getSets(elementsToRemove);
         for (Set<E> set : sets) {
-            /* In the case the set should completely disappear */
-            if (elements.containsAll(set)) {
-                clean(set);
-                continue;
-            }
-            /* Build new smaller set */
-            final Set<E> newSet = new HashSet<E>(set);
-            newSet.removeAll(elements);
+            /* Build new smaller set (null if the set completely disappears) */
+            final Partition<E>.Group newSet = partition.removeAll(
+                    (Partition<E>.Group) set, elements);
             /* Insert it with correct values */
-            insertSet(newSet);
-            copyEstimator(set, newSet);
-            /* Update and clean data structures */
+            if (newSet != null) {
+                insertSet(newSet);
+                copyEstimator(set, newSet);
+            }
+            /* Clean data structures */
             clean(set);
-            updateReverse(newSet);
         }
-        /* Update reverse and biggest */
-        for (E element : elements)
-            reverse.remove(element);
-        largest = null;
+        assert (checkPartition()) : "Partition malformed";
+        version++;
+    }
+
+    /**
+     * Gives a number that changes each time the sets or the estimators are
+     * modified, so that results derived from the matrix may be cached.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Signals that the estimator of both sets has been updated in place
+     * (called by subclasses after giving a sample to an estimator).
+     */
+    protected void estimatorUpdated(Set<E> set1, Set<E> set2) {
+        version++;
+        summarize(set1, set2);
     }
 
     public Set<E> getAll() {
-        return reverse.keySet();
+        return partition.getAll();
     }
 
     public Set<E> getSet(E element) {
-        if (reverse.containsKey(element))
-            return reverse.get(element);
-        else
-            throw new NoSuchElementException("Element never initialized");
+        return partition.getSet(element);
     }
 
     public Set<Set<E>> getSets(Collection<? extends E> elements) {
@@ -107,37 +155,161 @@ public class DynamicMatrix<E> {
                 || estimator.getUpperEndpoint() != 1.0d)
             throw new IllegalArgumentException(
                     "Estimator not in valid boundaries: " + estimator);
-        matrix.get(set1).put(set2, estimator);
-        matrix.get(set2).put(set1, estimator);
+        final long index = index(set1, set2);
+        int id = matrix.get(index);
+        if (id < 0) {
+            id = estimators.add();
+            matrix.put(index, id);
+        }
+        estimators.set(id, estimator);
+        version++;
+        summarize(set1, set2);
     }
 
+    /**
+     * Gives the estimator of both sets, which may be shared with other pairs
+     * of sets and must therefore not be modified (the shared cleared
+     * estimator is read-only).
+     */
     @SuppressWarnings("unchecked")
     protected Estimator getEstimator(Set<E> set1,
             Set<E> set2) {
+        final int id = getId(set1, set2);
+        if (id == cleared)
+            return clearedEstimator;
+        return estimators.get(id);
+    }
+
+    /**
+     * Gives the estimator of both sets such that it can be updated (the
+     * shared cleared estimator is copied the first time).
+     */
+    @SuppressWarnings("unchecked")
+    protected Estimator getModifiableEstimator(Set<E> set1, Set<E> set2) {
         testValidSet(set1, set2);
-        return matrix.get(set1).get(set2);
+        final long index = index(set1, set2);
+        int id = matrix.get(index);
+        if (id < 0) {
+            id = estimators.add();
+            matrix.put(index, id);
+            version++;
+        }
+        return estimators.get(id);
+    }
+
+    /**
+     * Gives the number of observations of both sets without obtaining their
+     * estimator.
+     */
+    protected double getSampleCount(Set<E> set1, Set<E> set2) {
+        return estimators.getSampleCount(getId(set1, set2));
+    }
+
+    /**
+     * Gives the number of observations of both sets equal to the value
+     * without obtaining their estimator.
+     */
+    protected double getSampleCount(Set<E> set1, Set<E> set2, double value) {
+        return estimators.getSampleCount(getId(set1, set2), value);
+    }
+
+    /**
+     * Gives the identifier in the store of the estimator of both sets.
+     */
+    @SuppressWarnings("unchecked")
+    private int getId(Set<E> set1, Set<E> set2) {
+        testValidSet(set1, set2);
+        final int id = matrix.get(index(set1, set2));
+        if (id < 0)
+            return cleared;
+        return id;
+    }
+
+    /**
+     * Resets the estimator of both sets to the shared cleared one.
+     */
+    private void clearEstimator(Set<E> set1, Set<E> set2) {
+        final int id = matrix.remove(index(set1, set2));
+        if (id >= 0) {
+            estimators.remove(id);
+            summarize(set1, set2);
+        }
+    }
+
+    /**
+     * Updates the summary if one of the sets is the summarized one.
+     */
+    private void summarize(Set<E> set1, Set<E> set2) {
+        if (summarized == null)
+            return;
+        if (set1 == summarized)
+            updateSummary(summarized, set2, ((Partition<?>.Group) set2).id,
+                    true);
+        else if (set2 == summarized)
+            updateSummary(summarized, set1, ((Partition<?>.Group) set1).id,
+                    true);
+    }
+
+    /**
+     * Rebuilds the summary of the row of the largest set if this set changed
+     * since the last time.
+     */
+    protected void refreshSummary() {
+        final Partition<E>.Group largest = partition.getLargest();
+        if (summarized != null && summarized == largest)
+            return;
+        summarized = largest;
+        clearSummary();
+        if (largest != null)
+            for (int id = 0; id < groups.size(); id++)
+                if (groups.get(id) != null)
+                    updateSummary(largest, groups.get(id), id, true);
+    }
+
+    /**
+     * Empties the summary before it is rebuilt. Subclasses extending the
+     * summary must call this implementation.
+     */
+    protected void clearSummary() {
+        errorSum = 0.0d;
+        Arrays.fill(errors, 0.0d);
+    }
+
+    /**
+     * Updates the summary after the estimator between the largest set and
+     * the given one changed, or after the given set left the matrix (when
+     * present is false). The identifier of the set is lower than the number
+     * of sets ever present at the same time. Subclasses extending the summary
+     * must call this implementation.
+     */
+    protected void updateSummary(Set<E> largest, Set<E> set, int id,
+            boolean present) {
+        if (id >= errors.length)
+            errors = Arrays.copyOf(errors, Math.max(id + 1,
+                    2 * errors.length));
+        errorSum -= errors[id];
+        errors[id] = present ? estimators.getError(getId(largest, set))
+            : 0.0d;
+        errorSum += errors[id];
     }
 
+    /**
+     * Gives the largest set (the oldest one in case of tie) or an empty set.
+     */
     public Set<E> getLargest() {
-        if (largest == null || largest.isEmpty())
-            updateLargest();
+        final Set<E> largest = partition.getLargest();
+        if (largest == null)
+            return new HashSet<E>();
         return largest;
     }
 
-    /* TODO getGeneralError()
-     * Based on the number of groups, or the size of the biggest group, or the
-     * mean of each error (can be done in O(1) if it is updated each time an
-     * estimator is changed).
-     */
     /**
-     * Gives a quick error indications of the current estimations.
+     * Gives a quick error indications of the current estimations (the mean
+     * error of the estimators in the row of the largest set).
      */
     public double getGeneralError() {
-        double result = 0.0d;
-        for (Set<E> set : matrix.keySet())
-            result += getEstimator(getLargest(), set).getError();
-        result /= matrix.keySet().size();
-        return result;
+        refreshSummary();
+        return errorSum / (groups.size() - freeIdsCount);
     }
 
     /**
@@ -146,13 +318,14 @@ public class DynamicMatrix<E> {
     @SuppressWarnings("unchecked")
     public Set<E> merge(Set<E> set1, Set<E> set2) {
         testValidSet(set1, set2);
-        if (set1.containsAll(set2) || set2.containsAll(set1))
+        /* Distinct sets of the matrix are disjoint */
+        if (set1 == set2)
             return null;
-        logger.fine("Merging of sets " + set1 + " and " + set2);
-        /* Merge by putting set2 in set1 */
-        Set<E> merge = new HashSet<E>();
-        merge.addAll(set1);
-        merge.addAll(set2);
+        if (logger.isLoggable(Level.FINE))
+            logger.fine("Merging of sets " + set1 + " and " + set2);
+        /* Merge by uniting both sets in the partition */
+        final Partition<E>.Group merge = partition.union(
+                (Partition<E>.Group) set1, (Partition<E>.Group) set2);
         /* Insert the new set into the matrix */
         insertSet(merge);
         /* Duplicating the estimator with best estimators */
@@ -160,11 +333,8 @@ public class DynamicMatrix<E> {
         /* Clean matrix by removing first sets */
         clean(set1);
         clean(set2);
-        /* Update reverse for all concerned elements */
-        updateReverse(merge);
-        /* Postpone the update of biggest */
-        if (largest != null && merge.size() > largest.size())
-            largest = null;
+        assert (checkPartition()) : "Partition malformed";
+        version++;
         return merge;
     }
 
@@ -176,12 +346,14 @@ public class DynamicMatrix<E> {
         testValidSet(set);
         if (set.size() == 1 || !set.contains(element))
             return;
-        logger.fine("Splitting of element " + element + " from set " + set);
-        /* Create a new set without the element */
-        Set<E> initialSet = new HashSet<E>(set);
-        initialSet.remove(element);
-        /* Create single set for the incriminated element */
-        Set<E> newSet = addElement(element, new HashSet<E>());
+        if (logger.isLoggable(Level.FINE))
+            logger.fine("Splitting of element " + element + " from set "
+                    + set);
+        /* Create a new set without the element and a single set for the
+         * incriminated element */
+        final Partition<E>.Group initialSet = partition.split(
+                (Partition<E>.Group) set, element);
+        final Partition<E>.Group newSet = partition.getSet(element);
         /* Insert these new sets into the matrix */
         insertSet(initialSet);
         insertSet(newSet);
@@ -189,12 +361,8 @@ public class DynamicMatrix<E> {
          * useless. */
         /* Clean matrix by removing the first set */
         clean(set);
-        /* Update reverse for all concerned elements */
-        reverse.put(element, newSet);
-        updateReverse(initialSet);
-        /* Postpone the update of biggest */
-        if (largest == set)
-            largest = null;
+        assert (checkPartition()) : "Partition malformed";
+        version++;
     }
 
     /**
@@ -202,27 +370,82 @@ public class DynamicMatrix<E> {
      */
     protected void testValidSet(Set<E>... sets) {
         for (Set<E> set : sets)
-            if (!matrix.containsKey(set))
+            if (!isValidSet(set))
                 throw new NoSuchElementException("The considered set is not present in the matrix: "
                         + Arrays.toString(set.toArray()));
     }
 
+    /**
+     * Tests the presence of the set in the matrix without hashing it.
+     */
+    private boolean isValidSet(Set<E> set) {
+        if (!(set instanceof Partition.Group))
+            return false;
+        final int id = ((Partition<?>.Group) set).id;
+        return id >= 0 && id < groups.size() && groups.get(id) == set;
+    }
+
+    /**
+     * Gives the position in the matrix of the estimator of both valid sets.
+     */
+    private static long index(Set<?> set1, Set<?> set2) {
+        final long id1 = ((Partition<?>.Group) set1).id;
+        final long id2 = ((Partition<?>.Group) set2).id;
+        if (id1 >= id2)
+            return id1 * (id1 + 1L) / 2L + id2;
+        return id2 * (id2 + 1L) / 2L + id1;
+    }
+
+    /**
+     * Gives an identifier to a new set, by reusing a free one if possible.
+     */
+    private void allocateId(Partition<E>.Group set) {
+        if (freeIdsCount > 0) {
+            set.id = freeIds[--freeIdsCount];
+            groups.set(set.id, set);
+        } else {
+            set.id = groups.size();
+            groups.add(set);
+        }
+        /* The new set has no information with the largest one yet */
+        if (summarized != null)
+            updateSummary(summarized, set, set.id, true);
+    }
+
+    /**
+     * Releases the identifier of a removed set and its estimators.
+     */
+    private void releaseId(Partition<E>.Group set) {
+        if (set == summarized)
+            summarized = null;
+        for (int id = 0; id < groups.size(); id++)
+            if (groups.get(id) != null)
+                clearEstimator(set, groups.get(id));
+        if (summarized != null)
+            updateSummary(summarized, set, set.id, false);
+        groups.set(set.id, null);
+        if (freeIdsCount == freeIds.length)
+            freeIds = Arrays.copyOf(freeIds, 2 * freeIds.length);
+        freeIds[freeIdsCount++] = set.id;
+        set.id = -1;
+    }
+
     /**
      * Inserts newly created sets.
      */
-    private void insertSet(Set<E> set) {
+    private void insertSet(Partition<E>.Group set) {
         if (set.isEmpty())
             return;
-        /* Add new row */
-        matrix.put(set, new HashMap<Set<E>,Estimator>());
-        for (Set<E> otherSet : matrix.keySet()) {
-            /* Special initial value for diagonal elements */
-            if (set == otherSet)
-                setEstimator(set, otherSet, estimatorBase.clone());
-            /* Uncertainty for others */
-            else
-                setEstimator(set, otherSet, estimatorBase.clone().clear());
-        }
+        /* Add new row (or reinitialize it) */
+        if (!isValidSet(set))
+            allocateId(set);
+        else
+            for (Set<E> otherSet : groups)
+                if (otherSet != null)
+                    clearEstimator(set, otherSet);
+        /* Special initial value for diagonal elements (uncertainty for
+         * others) */
+        setEstimator(set, set, estimatorBase.clone());
         assert(checkMatrix()) : "Matrix malformed";
     }
 
@@ -230,8 +453,9 @@ public class DynamicMatrix<E> {
      * Gives to the inserted set the cloned estimators of the initial set.
      */
     private void copyEstimator(Set<E> initialSet, Set<E> newSet) {
-        for (Set<E> set : matrix.keySet())
-            if (set != initialSet && set != newSet)
+        for (Set<E> set : groups)
+            if (set != null && set != initialSet && set != newSet
+                    && getId(initialSet, set) != cleared)
                 setEstimator(newSet, set, getEstimator(initialSet, set).clone());
         setEstimator(newSet, newSet, getEstimator(initialSet, initialSet).clone());
     }
@@ -242,8 +466,11 @@ public class DynamicMatrix<E> {
      */
     private void copyEstimator(Set<E> set1, Set<E> set2,
             Set<E> newSet) {
-        for (Set<E> set : matrix.keySet())
-            if (set != newSet && set != set1 && set != set2) {
+        for (Set<E> set : groups)
+            if (set != null && set != newSet && set != set1 && set != set2) {
+                /* Merging two cleared estimators gives no information */
+                if (getId(set1, set) == cleared && getId(set2, set) == cleared)
+                    continue;
                 final Estimator merge = Estimator.merge(getEstimator(set1, set),
                         getEstimator(set2, set));
                 setEstimator(newSet, set, merge);
@@ -254,51 +481,79 @@ public class DynamicMatrix<E> {
         setEstimator(newSet, newSet, merge);
     }
 
-    private void updateReverse(Set<E> elements) {
-        for (E element : elements)
-            reverse.put(element, elements);
-        assert (checkReverse()) : "Reverse malformed";
-    }
-
-    private void updateLargest() {
-        for (Set<E> set : matrix.keySet())
-            if (largest == null || set.size() > largest.size())
-                largest = set;
-        if (largest == null)
-            largest = new HashSet<E>();
-    }
-
     private void clean(Set<E> remove) {
-        for (Set<E> set : matrix.keySet())
-            matrix.get(set).remove(remove);
-        matrix.remove(remove);
+        releaseId((Partition<E>.Group) remove);
+        version++;
         assert (checkMatrix()) : "Matrix malformed";
     }
 
-    private boolean checkReverse() {
-        for (Set<E> set : matrix.keySet())
-            for (E element : set)
-                if (reverse.get(element) != set)
-                    return false;
+    private boolean checkPartition() {
+        for (Set<E> set : groups)
+            if (set != null)
+                for (E element : set)
+                    if (partition.getSet(element) != set)
+                        return false;
         return true;
     }
 
     private boolean checkMatrix() {
-        for (Set<E> set : matrix.keySet())
-            for (Set<E> otherSet : matrix.keySet())
-                if (getEstimator(set, otherSet) == null)
+        for (Set<E> set : groups)
+            for (Set<E> otherSet : groups)
+                if (set != null && otherSet != null
+                        && matrix.get(index(set, otherSet)) == cleared)
                     return false;
         return true;
     }
 
     public String toString() {
         StringBuilder stbuild = new StringBuilder();
-        for (Set<E> set1 : matrix.keySet())
+        for (Set<E> set1 : groups) {
+            if (set1 == null)
+                continue;
+            final List<Estimator> row = new ArrayList<Estimator>();
+            for (Set<E> set2 : groups)
+                if (set2 != null)
+                    row.add(getEstimator(set1, set2));
             stbuild.append("(" + set1.size() + "): "
                     + Arrays.toString(set1.toArray()) + " = "
-                    + Arrays.toString(matrix.get(set1).values().toArray())
+                    + Arrays.toString(row.toArray())
                     + '\n');
+        }
         return stbuild.toString();
     }
 
+    /**
+     * Measures the heap used by matrices of singleton sets without any
+     * observation. The numbers of elements may be given as arguments (10000,
+     * 50000 and 100000 by default).
+     */
+    public static void main(String[] args) {
+        final int[] counts = { 10000, 50000, 100000 };
+        final int[] sizes = args.length > 0 ? new int[args.length] : counts;
+        for (int i = 0; i < args.length; i++)
+            sizes[i] = Integer.parseInt(args[i]);
+        for (int size : sizes) {
+            final List<Object> elements = new ArrayList<Object>(size);
+            for (int i = 0; i < size; i++)
+                elements.add(new Object());
+            final long before = getUsedMemory();
+            final long start = System.currentTimeMillis();
+            final DynamicMatrix<Object> matrix = new DynamicMatrix<Object>(
+                    new BetaEstimator());
+            matrix.addAll(elements);
+            final long time = System.currentTimeMillis() - start;
+            final long used = getUsedMemory() - before;
+            System.out.println(matrix.getAll().size() + " elements: "
+                    + (used >> 20) + " MB (" + used / size
+                    + " bytes per element) built in " + time + " ms");
+        }
+    }
+
+    private static long getUsedMemory() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
 }
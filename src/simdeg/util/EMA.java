@@ -33,25 +33,6 @@ public class EMA extends RV {
     /** Default long term estimator standard deviation */
     private static final double LONG_TERM_STD_DEV = 0.03d;
 
-//    private static final double LUT_PRECISION = 0.01d;
-
-//    private static UnaryLUT<Double,Double> estimatorsConsistencyValues;
-
-//    static {
-//        try {
-//            Method estimatorsConsistencyMethod
-//                = EMA.class.getMethod(
-//                        "getEstimatorsConsistency", Double.TYPE);
-//            estimatorsConsistencyValues = new UnaryLUT<Double,Double>(
-//                    estimatorsConsistencyMethod,
-//                    new Double[] {0.0d, 1.0d, LUT_PRECISION});
-//        } catch (NoSuchMethodException e) {
-//            logger.log(Level.SEVERE,
-//                    "The method getEstimatorsConsistency was not found", e);
-//            System.exit(1);
-//        }
-//    }
-
     public EMA() {
         this(SHORT_TERM_STD_DEV, LONG_TERM_STD_DEV);
     }
@@ -90,10 +71,6 @@ public class EMA extends RV {
                 longTermWeight);
     }
 
-//    private double getEstimatorsConsistency(double e1, double e2) {
-//        return estimatorsConsistencyValues.getValue(abs(e1 - e2));
-//    }
-
     public EMA clone() {
         return new EMA(shortTermEstimate, longTermEstimate,
                 shortTermStdDev, longTermStdDev);
@@ -56,8 +56,88 @@ public abstract class Estimator extends RV {
      */
     public abstract Estimator merge(Estimator estimator);
 
+    /**
+     * Creates an empty store for estimators similar to this one. By default,
+     * the stored estimators are kept as distinct objects.
+     */
+    public EstimatorStore createStore() {
+        return new ClonedEstimatorStore(this);
+    }
+
+    /**
+     * Gives a view on this estimator that cannot be modified (its
+     * modifications throw an UnsupportedOperationException), such that it can
+     * be shared safely. Its clones are modifiable.
+     */
+    public Estimator readOnly() {
+        return new ReadOnly(this);
+    }
+
     public static Estimator merge(Estimator e1, Estimator e2) {
         return e1.clone().merge(e2);
     }
 
+    /**
+     * Read-only view on any estimator.
+     */
+    private static class ReadOnly extends Estimator {
+
+        private final Estimator estimator;
+
+        private ReadOnly(Estimator estimator) {
+            super(estimator.getLowerEndpoint(), estimator.getUpperEndpoint());
+            this.estimator = estimator;
+        }
+
+        public double getMean() {
+            return estimator.getMean();
+        }
+
+        public double getVariance() {
+            return estimator.getVariance();
+        }
+
+        public double getError() {
+            return estimator.getError();
+        }
+
+        public Estimator clone() {
+            return estimator.clone();
+        }
+
+        public void setSample(double value) {
+            throw new UnsupportedOperationException("Read-only estimator");
+        }
+
+        public double getSampleCount() {
+            return estimator.getSampleCount();
+        }
+
+        public double getSampleCount(double value) {
+            return estimator.getSampleCount(value);
+        }
+
+        public double sampleCountLimit(double error) {
+            return estimator.sampleCountLimit(error);
+        }
+
+        public Estimator clear() {
+            throw new UnsupportedOperationException("Read-only estimator");
+        }
+
+        public Estimator merge(Estimator estimator) {
+            throw new UnsupportedOperationException("Read-only estimator");
+        }
+
+        protected RV set(double lower, double upper, double estimate,
+                double variance) {
+            throw new UnsupportedOperationException("Read-only estimator");
+        }
+
+        public String toString() {
+            return estimator.toString();
+        }
+
+    }
+
 }
@@ -0,0 +1,89 @@
+package simdeg.util;
+
+import java.util.Arrays;
+
+/**
+ * Collection of estimators of the same kind indexed by integer identifiers,
+ * which are reused once released. Depending on the implementation, the
+ * estimators may be distinct objects or views on packed parameters (see
+ * Estimator.createStore). The quantities needed when scanning many estimators
+ * are available without obtaining the estimators.
+ */
+public abstract class EstimatorStore {
+
+	/** Identifiers of the removed estimators that can be reused */
+	private int[] freeIds = new int[16];
+
+	/** Number of identifiers that can be reused */
+	private int freeIdsCount = 0;
+
+	/** Number of identifiers given so far (including the free ones) */
+	private int count = 0;
+
+	/**
+	 * Adds an estimator without information and returns its identifier.
+	 */
+	public int add() {
+		final int id;
+		if (freeIdsCount > 0)
+			id = freeIds[--freeIdsCount];
+		else {
+			id = count++;
+			ensureCapacity(count);
+		}
+		clear(id);
+		return id;
+	}
+
+	/**
+	 * Removes the estimator, whose identifier may then be reused.
+	 */
+	public void remove(int id) {
+		if (freeIdsCount == freeIds.length)
+			freeIds = Arrays.copyOf(freeIds, 2 * freeIds.length);
+		freeIds[freeIdsCount++] = id;
+	}
+
+	/**
+	 * Gives the estimator, whose later updates are reflected in the store
+	 * until it is removed. As the identifier may then be reused, a caller
+	 * keeping the estimator beyond its removal must clone it.
+	 */
+	public abstract Estimator get(int id);
+
+	/**
+	 * Replaces the estimator by the given one, which may be either kept or
+	 * copied by the store (it must therefore not be used anymore).
+	 */
+	public abstract void set(int id, Estimator estimator);
+
+	/**
+	 * Adds a sample to the estimator without obtaining it.
+	 */
+	public void setSample(int id, double value) {
+		get(id).setSample(value);
+	}
+
+	public double getSampleCount(int id) {
+		return get(id).getSampleCount();
+	}
+
+	public double getSampleCount(int id, double value) {
+		return get(id).getSampleCount(value);
+	}
+
+	public double getError(int id) {
+		return get(id).getError();
+	}
+
+	/**
+	 * Resets the estimator such that it does not have any information.
+	 */
+	protected abstract void clear(int id);
+
+	/**
+	 * Allows identifiers to be lower than the given capacity.
+	 */
+	protected abstract void ensureCapacity(int capacity);
+
+}
@@ -20,13 +20,35 @@ package simdeg.util;
 
 /**
  * To avoid the random hashing done by JAVA, all objects used in hash objects
- * must inherit from this class.
+ * must inherit from this class. The hash codes are given in the order of
+ * creation of the objects by the counter associated to the current thread.
  */
 public class HashableObject implements Cloneable {
 
-	private int hash = count++;
+	/**
+	 * Source of hash codes. Using a new counter allows to obtain the same hash
+	 * codes whatever objects were created before.
+	 */
+	public static class Counter {
+		private int count = 0;
+	}
+
+	private static final ThreadLocal<Counter> counter = new ThreadLocal<Counter>() {
+		@Override
+		protected Counter initialValue() {
+			return new Counter();
+		}
+	};
 
-	private static int count = 0;
+	private int hash = counter.get().count++;
+
+	/**
+	 * Specifies the counter giving the hash codes of the objects created by
+	 * the current thread.
+	 */
+	public static void setCounter(Counter counter) {
+		HashableObject.counter.set(counter);
+	}
 
 	@Override
 	protected HashableObject clone() {
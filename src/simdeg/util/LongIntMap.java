@@ -0,0 +1,119 @@
+package simdeg.util;
+
+/**
+ * Map from non negative long keys to non negative int values, based on open
+ * addressing with linear probing. Neither keys nor values are boxed.
+ */
+class LongIntMap {
+
+	/** Minimal capacity of the table (power of two) */
+	private static final int MIN_CAPACITY = 16;
+
+	/** Keys plus one (0 for empty slots) */
+	private long[] keys = new long[MIN_CAPACITY];
+
+	/** Values associated to the keys */
+	private int[] values = new int[MIN_CAPACITY];
+
+	/** Number of keys */
+	private int size = 0;
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Gives the ideal slot of the given stored key.
+	 */
+	private int slot(long stored) {
+		final long hash = stored * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+	}
+
+	/**
+	 * Gives the slot containing the key or the empty slot where it would be.
+	 */
+	private int find(long stored) {
+		int i = slot(stored);
+		while (keys[i] != 0L && keys[i] != stored)
+			i = (i + 1) & (keys.length - 1);
+		return i;
+	}
+
+	/**
+	 * Gives the value associated to the key (-1 if there is none).
+	 */
+	int get(long key) {
+		final int i = find(key + 1L);
+		if (keys[i] == 0L)
+			return -1;
+		return values[i];
+	}
+
+	void put(long key, int value) {
+		if (key < 0L)
+			throw new IllegalArgumentException("Negative key: " + key);
+		if (value < 0)
+			throw new IllegalArgumentException("Negative value: " + value);
+		final long stored = key + 1L;
+		final int i = find(stored);
+		if (keys[i] == 0L) {
+			keys[i] = stored;
+			size++;
+		}
+		values[i] = value;
+		/* Maximal load factor of 1/2 */
+		if (2 * size > keys.length)
+			resize(2 * keys.length);
+	}
+
+	/**
+	 * Removes the key and gives its previous value (-1 if there was none).
+	 */
+	int remove(long key) {
+		int i = find(key + 1L);
+		if (keys[i] == 0L)
+			return -1;
+		final int value = values[i];
+		/* Shift back the following keys that would not be found anymore */
+		final int mask = keys.length - 1;
+		int j = i;
+		while (true) {
+			j = (j + 1) & mask;
+			if (keys[j] == 0L)
+				break;
+			final int k = slot(keys[j]);
+			if (i <= j ? (k <= i || k > j) : (k <= i && k > j)) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				i = j;
+			}
+		}
+		keys[i] = 0L;
+		size--;
+		/* Minimal load factor of 1/8 */
+		if (8 * size < keys.length && keys.length > MIN_CAPACITY)
+			resize(keys.length / 2);
+		return value;
+	}
+
+	void clear() {
+		keys = new long[MIN_CAPACITY];
+		values = new int[MIN_CAPACITY];
+		size = 0;
+	}
+
+	private void resize(int capacity) {
+		final long[] oldKeys = keys;
+		final int[] oldValues = values;
+		keys = new long[capacity];
+		values = new int[capacity];
+		for (int i = 0; i < oldKeys.length; i++)
+			if (oldKeys[i] != 0L) {
+				final int j = find(oldKeys[i]);
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+	}
+
+}
@@ -0,0 +1,113 @@
+package simdeg.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+
+/**
+ * Records of a trace kept in memory. The records are read once and may then
+ * be traversed concurrently by several readers, which is useful when many
+ * simulations read the same trace in the same JVM. Values that are not
+ * numbers in a text trace are stored as NaN.
+ */
+public class MemoryTrace {
+
+	/** Largest size of an array supported by the JVMs */
+	private static final int MAX_ARRAY = Integer.MAX_VALUE - 8;
+
+	private final int valuesCount;
+
+	private int size = 0;
+
+	private int[] ids;
+
+	private double[] values;
+
+	/**
+	 * Reads all the records of a trace (the trace is then closed).
+	 */
+	public MemoryTrace(Trace trace, int valuesCount) {
+		this(trace, valuesCount, MAX_ARRAY);
+	}
+
+	/**
+	 * Reads the records of a trace without storing more than the given
+	 * number of values. The number of records is bounded such that the
+	 * positions of the values never overflow.
+	 */
+	MemoryTrace(Trace trace, int valuesCount, int maxValues) {
+		this.valuesCount = valuesCount;
+		final int maxRecords = maxValues / Math.max(valuesCount, 1);
+		ids = new int[Math.min(1024, maxRecords)];
+		values = new double[ids.length * valuesCount];
+		while (trace.next()) {
+			if (size == ids.length) {
+				if (size == maxRecords) {
+					trace.close();
+					throw new IllegalStateException("Trace too large to be"
+							+ " kept in memory: more than " + maxRecords
+							+ " records of " + valuesCount + " values");
+				}
+				final int capacity = (int) Math.min(2L * ids.length,
+						maxRecords);
+				ids = Arrays.copyOf(ids, capacity);
+				values = Arrays.copyOf(values, capacity * valuesCount);
+			}
+			ids[size] = trace.getId();
+			for (int i = 0; i < valuesCount; i++) {
+				try {
+					values[size * valuesCount + i] = trace.getValue(i);
+				} catch (InputMismatchException e) {
+					values[size * valuesCount + i] = Double.NaN;
+				}
+			}
+			size++;
+		}
+		trace.close();
+	}
+
+	/**
+	 * Reads all the records of a trace file with the given layout.
+	 */
+	public MemoryTrace(File file, int headerLines, int idColumn,
+			int... valueColumns) throws IOException {
+		this(Trace.open(file, headerLines, idColumn, valueColumns),
+				valueColumns.length);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getValuesCount() {
+		return valuesCount;
+	}
+
+	/**
+	 * Gives a new reader starting at the first record.
+	 */
+	public Trace open() {
+		return new Trace() {
+			private int record = -1;
+
+			public boolean next() {
+				if (record < size)
+					record++;
+				return record < size;
+			}
+
+			public int getId() {
+				return ids[record];
+			}
+
+			public double getValue(int i) {
+				return values[record * valuesCount + i];
+			}
+
+			public void close() {
+			}
+		};
+	}
+
+}
@@ -0,0 +1,298 @@
+package simdeg.util;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Partition of elements into disjoint sets based on a union-find structure
+ * (union by size and path halving). The sets of the partition are immutable:
+ * a union appends the elements of the smaller set to the ones of the larger
+ * set, which still sees only its own elements, while removing an element
+ * from a set rebuilds it. The sets are indexed by size such that the largest
+ * one (the oldest in case of tie) is found in constant time.
+ */
+class Partition<E> {
+
+	/** Node of each element in the union-find forest */
+	private final Map<E, Node<E>> nodes = new HashMap<E, Node<E>>();
+
+	/** Sets of each size in order of creation (null if there is none) */
+	private final List<Set<Group>> sizes = new ArrayList<Set<Group>>();
+
+	/** Upper bound of the size of the largest set (lowered lazily) */
+	private int largestSize = 0;
+
+	Set<E> getAll() {
+		return nodes.keySet();
+	}
+
+	boolean contains(E element) {
+		return nodes.containsKey(element);
+	}
+
+	Group getSet(E element) {
+		final Node<E> node = nodes.get(element);
+		if (node == null)
+			throw new NoSuchElementException("Element never initialized");
+		return find(node).group;
+	}
+
+	/**
+	 * Returns the largest set (null if the partition is empty).
+	 */
+	Group getLargest() {
+		while (largestSize > 0 && sizes.get(largestSize) == null)
+			largestSize--;
+		if (largestSize == 0)
+			return null;
+		return sizes.get(largestSize).iterator().next();
+	}
+
+	/**
+	 * Puts a new element alone in its set and returns this set (or the set of
+	 * the element if it is already present).
+	 */
+	Group add(E element) {
+		if (nodes.containsKey(element))
+			return getSet(element);
+		final Node<E> node = new Node<E>();
+		nodes.put(element, node);
+		return attach(new Group(element), node);
+	}
+
+	/**
+	 * Gathers both sets into a new one, which shares the elements of the
+	 * larger set.
+	 */
+	Group union(Group set1, Group set2) {
+		Group larger = set1;
+		Group smaller = set2;
+		if (set1.size < set2.size) {
+			larger = set2;
+			smaller = set1;
+		}
+		final Node<E> root = larger.root;
+		final Node<E> child = smaller.root;
+		final Members<E> members = larger.getMembers();
+		for (E element : smaller)
+			members.add(element);
+		retire(set1);
+		retire(set2);
+		child.parent = root;
+		child.group = null;
+		return attach(new Group(members, set1.hash + set2.hash), root);
+	}
+
+	/**
+	 * Puts the element alone in a new set and returns the new set containing
+	 * the other elements of its previous set.
+	 */
+	Group split(Group set, E element) {
+		final Set<E> elements = new HashSet<E>(set);
+		elements.remove(element);
+		retire(set);
+		final Group remaining = rebuild(elements);
+		final Node<E> node = nodes.get(element);
+		node.parent = null;
+		attach(new Group(element), node);
+		return remaining;
+	}
+
+	/**
+	 * Removes the given elements of the set from the partition and returns the
+	 * new set containing the remaining ones (null if there is none).
+	 */
+	Group removeAll(Group set, Collection<?> removed) {
+		final Set<E> elements = new HashSet<E>(set);
+		retire(set);
+		for (E element : set)
+			if (removed.contains(element)) {
+				elements.remove(element);
+				nodes.remove(element);
+			}
+		if (elements.isEmpty())
+			return null;
+		return rebuild(elements);
+	}
+
+	/**
+	 * Creates a set with the given elements under a new root.
+	 */
+	private Group rebuild(Set<E> elements) {
+		final Node<E> root = new Node<E>();
+		for (E element : elements) {
+			final Node<E> node = nodes.get(element);
+			node.parent = root;
+			node.group = null;
+		}
+		final Members<E> members = new Members<E>();
+		for (E element : elements)
+			members.add(element);
+		return attach(new Group(members, elements.hashCode()), root);
+	}
+
+	private Group attach(Group set, Node<E> root) {
+		root.group = set;
+		set.root = root;
+		while (sizes.size() <= set.size)
+			sizes.add(null);
+		if (sizes.get(set.size) == null)
+			sizes.set(set.size, new LinkedHashSet<Group>());
+		sizes.get(set.size).add(set);
+		largestSize = Math.max(largestSize, set.size);
+		return set;
+	}
+
+	private void retire(Group set) {
+		sizes.get(set.size).remove(set);
+		if (sizes.get(set.size).isEmpty())
+			sizes.set(set.size, null);
+		set.root = null;
+	}
+
+	private static <E> Node<E> find(Node<E> node) {
+		while (node.parent != null) {
+			if (node.parent.parent != null)
+				node.parent = node.parent.parent;
+			node = node.parent;
+		}
+		return node;
+	}
+
+	/**
+	 * Node of the union-find forest (the group is only set on the roots).
+	 */
+	private static class Node<E> {
+
+		private Node<E> parent;
+
+		private Partition<E>.Group group;
+
+	}
+
+	/**
+	 * Elements of successive unions with their order of addition. Elements
+	 * are only added, such that the sets sharing them see the first ones.
+	 */
+	private static class Members<E> {
+
+		/** Order of addition of each element */
+		private final Map<E, Integer> positions = new HashMap<E, Integer>();
+
+		private void add(E element) {
+			positions.put(element, positions.size());
+		}
+
+	}
+
+	/**
+	 * Immutable set of the partition. The owner of the partition may attach an
+	 * identifier to it.
+	 */
+	class Group extends AbstractSet<E> {
+
+		/** Identifier given by the owner of the partition (-1 if none) */
+		int id = -1;
+
+		private final int size;
+
+		/** Sum of the hashes of the elements (as any other set) */
+		private final int hash;
+
+		/** Root of the set while it belongs to the partition (null after) */
+		private Node<E> root;
+
+		/** Element of a set created alone (null otherwise) */
+		private final E single;
+
+		/** Shared elements whose first ones are in the set (null if alone) */
+		private final Members<E> members;
+
+		private Group(E single) {
+			this.single = single;
+			this.members = null;
+			this.size = 1;
+			this.hash = single.hashCode();
+		}
+
+		private Group(Members<E> members, int hash) {
+			this.single = null;
+			this.members = members;
+			this.size = members.positions.size();
+			this.hash = hash;
+		}
+
+		/**
+		 * Gives the elements to which a union may append (only for a set of
+		 * the partition).
+		 */
+		private Members<E> getMembers() {
+			if (members != null) {
+				assert (members.positions.size() == size) : "Set retired";
+				return members;
+			}
+			final Members<E> created = new Members<E>();
+			created.add(single);
+			return created;
+		}
+
+		public boolean contains(Object o) {
+			if (members == null)
+				return single.equals(o);
+			final Integer position = members.positions.get(o);
+			return position != null && position < size;
+		}
+
+		public Iterator<E> iterator() {
+			if (members == null)
+				return Collections.singleton(single).iterator();
+			final Iterator<Map.Entry<E, Integer>> entries = members.positions
+					.entrySet().iterator();
+			return new Iterator<E>() {
+				/** Number of elements of the set already given */
+				private int count = 0;
+
+				public boolean hasNext() {
+					return count < size;
+				}
+
+				/**
+				 * Skips the elements added after this set was united.
+				 */
+				public E next() {
+					if (count >= size)
+						throw new NoSuchElementException();
+					Map.Entry<E, Integer> entry = entries.next();
+					while (entry.getValue() >= size)
+						entry = entries.next();
+					count++;
+					return entry.getKey();
+				}
+
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+
+		public int size() {
+			return size;
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+	}
+
+}
@@ -26,7 +26,9 @@ import java.util.logging.Logger;
 /*
  * Manager of random generators. Allows to associate a different seed
  * to each need (represented with a string). It would have been cleaner
- * to have a generic class if PsRandom inherited from Random.
+ * to have a generic class if PsRandom inherited from Random. Each thread
+ * has its own generators, such that simulations running concurrently in
+ * distinct threads draw independent sequences.
  */
 public class RandomManager {
 
@@ -34,13 +36,18 @@ public class RandomManager {
 	private static final Logger logger = Logger.getLogger(RandomManager.class
 			.getName());
 
-	private static final Map<String, MersenneTwisterFast> randoms = new HashMap<String, MersenneTwisterFast>();
-
-	static {
-		setSeed("", 0L);
-	}
+	private static final ThreadLocal<Map<String, MersenneTwisterFast>> randoms = new ThreadLocal<Map<String, MersenneTwisterFast>>() {
+		@Override
+		protected Map<String, MersenneTwisterFast> initialValue() {
+			final Map<String, MersenneTwisterFast> result = new HashMap<String, MersenneTwisterFast>();
+			result.put("", new MersenneTwisterFast(0L));
+			return result;
+		}
+	};
 
 	public static void setSeed(String key, long seed) {
+		final Map<String, MersenneTwisterFast> randoms = RandomManager.randoms
+				.get();
 		if (!randoms.containsKey(key))
 			randoms.put(key, new MersenneTwisterFast());
 		randoms.get(key).setSeed(seed);
@@ -48,6 +55,8 @@ public class RandomManager {
 
 	public static MersenneTwisterFast getRandom(String... keys) {
 		logger.finer("Random requesting for key " + Arrays.toString(keys));
+		final Map<String, MersenneTwisterFast> randoms = RandomManager.randoms
+				.get();
 		for (String key : keys) {
 			if (randoms.containsKey(key))
 				return randoms.get(key);
@@ -0,0 +1,76 @@
+package simdeg.util;
+
+/**
+ * Splittable generator of random numbers based on the SplitMix64 algorithm.
+ * Each generator is a stream that may be split into independent child
+ * streams, and any value of a stream may be obtained directly from its index
+ * without generating the previous ones. Giving its own stream to each entity
+ * of a simulation and indexing the values by a stable key (e.g. the job)
+ * makes the random choices independent of the order in which they are made.
+ */
+public class SplitRandom {
+
+	/** Default increment (odd approximation of the golden ratio) */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	/** Scale of the 53 bits used for a double */
+	private static final double DOUBLE_UNIT = 1.0d / (1L << 53);
+
+	/** Current state (the value before the first one) */
+	private long seed;
+
+	/** Increment of the state at each step (odd) */
+	private final long gamma;
+
+	public SplitRandom(long seed) {
+		this(seed, GOLDEN_GAMMA);
+	}
+
+	private SplitRandom(long seed, long gamma) {
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L;
+		/* Avoid increments with too few bit transitions */
+		final int n = Long.bitCount(z ^ (z >>> 1));
+		return n < 24 ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+
+	public long nextLong() {
+		seed += gamma;
+		return mix64(seed);
+	}
+
+	public double nextDouble() {
+		return (nextLong() >>> 11) * DOUBLE_UNIT;
+	}
+
+	/**
+	 * Returns the value of given index in the stream starting from the
+	 * current state, without modifying it (getDouble(0) is the next value).
+	 */
+	public double getDouble(long index) {
+		return (mix64(seed + (index + 1L) * gamma) >>> 11) * DOUBLE_UNIT;
+	}
+
+	/**
+	 * Gives a new stream which is independent of the current one (whose
+	 * state is advanced).
+	 */
+	public SplitRandom split() {
+		final long childSeed = nextLong();
+		seed += gamma;
+		return new SplitRandom(childSeed, mixGamma(seed));
+	}
+
+}
@@ -0,0 +1,91 @@
+package simdeg.util;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Text trace whose values are parsed only when they are requested.
+ */
+class TextTrace extends Trace {
+
+	private final TraceReader reader;
+
+	private final int idColumn;
+
+	private final int[] valueColumns;
+
+	/** Values of the current record that are already parsed */
+	private final double[] values;
+
+	/** Number of values of the current record that are already parsed */
+	private int parsed = 0;
+
+	/** Column of the next token to be read in the current line */
+	private int column = 0;
+
+	/** Id of the current record */
+	private int id = -1;
+
+	/** Specifies if the current line has to be skipped by next() */
+	private boolean started = false;
+
+	protected TextTrace(File file, int headerLines, int idColumn,
+			int[] valueColumns) throws IOException {
+		this.reader = new TraceReader(file);
+		this.idColumn = idColumn;
+		this.valueColumns = valueColumns;
+		this.values = new double[valueColumns.length];
+		for (int i = 0; i < headerLines; i++)
+			reader.nextLine();
+	}
+
+	private void skipTo(int column) {
+		while (this.column < column) {
+			reader.skip();
+			this.column++;
+		}
+	}
+
+	public boolean next() {
+		if (started)
+			reader.nextLine();
+		started = true;
+		if (!reader.hasNext())
+			return false;
+		column = 0;
+		parsed = 0;
+		if (idColumn >= 0) {
+			skipTo(idColumn);
+			id = reader.nextInt();
+			column++;
+		}
+		return true;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public double getValue(int i) {
+		while (parsed <= i) {
+			skipTo(valueColumns[parsed]);
+			values[parsed++] = reader.nextDouble();
+			column++;
+		}
+		return values[i];
+	}
+
+	/**
+	 * Moves to the line starting at the given offset (next() must then be
+	 * called to read it).
+	 */
+	protected void seek(long offset) {
+		reader.seek(offset);
+		started = false;
+	}
+
+	public void close() {
+		reader.close();
+	}
+
+}
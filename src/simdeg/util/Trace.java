@@ -0,0 +1,111 @@
+package simdeg.util;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sequence of records read from a trace file. Each record may have an integer
+ * id and has a fixed number of real values. The trace is either a whitespace
+ * separated text file, in which case the id and the values are read in given
+ * columns of each line, or a binary file created with
+ * {@link BinaryTrace#convert}, which is detected automatically. Traces that
+ * are loaded in memory are read from there instead of their file.
+ */
+public abstract class Trace implements Closeable {
+
+	/** Traces kept in memory, indexed by their file and their layout */
+	private static final Map<String, MemoryTrace> loaded = new ConcurrentHashMap<String, MemoryTrace>();
+
+	private static String getKey(File file, int headerLines, int idColumn,
+			int[] valueColumns) throws IOException {
+		return file.getCanonicalPath() + " " + headerLines + " " + idColumn
+				+ " " + Arrays.toString(valueColumns);
+	}
+
+	/**
+	 * Keeps in memory the records of a trace file, such that following
+	 * openings of this file with the same layout read them from memory.
+	 */
+	public static void load(File file, int headerLines, int idColumn,
+			int... valueColumns) throws IOException {
+		final String key = getKey(file, headerLines, idColumn, valueColumns);
+		if (!loaded.containsKey(key))
+			loaded.put(key, new MemoryTrace(file, headerLines, idColumn,
+					valueColumns));
+	}
+
+	/**
+	 * Releases all the traces kept in memory.
+	 */
+	public static void unloadAll() {
+		loaded.clear();
+	}
+
+	/**
+	 * Opens a trace file whose format is detected by its first bytes. For text
+	 * files, the first lines are ignored and the id (if its column is not
+	 * negative) and the values are read in the given columns, which must be
+	 * in increasing order.
+	 */
+	public static Trace open(File file, int headerLines, int idColumn,
+			int... valueColumns) throws IOException {
+		if (!loaded.isEmpty()) {
+			final MemoryTrace trace = loaded.get(getKey(file, headerLines,
+					idColumn, valueColumns));
+			if (trace != null)
+				return trace.open();
+		}
+		if (isBinary(file))
+			return new BinaryTrace(file, valueColumns.length);
+		return new TextTrace(file, headerLines, idColumn, valueColumns);
+	}
+
+	/**
+	 * Tests whether the file is a binary trace.
+	 */
+	public static boolean isBinary(File file) throws IOException {
+		if (file.length() < 4)
+			return false;
+		final DataInputStream input = new DataInputStream(new FileInputStream(
+				file));
+		try {
+			return input.readInt() == BinaryTrace.MAGIC;
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Gives the name of the trace file, or of the text trace it was converted
+	 * from for a binary trace.
+	 */
+	public static String getSourceName(File file) throws IOException {
+		if (isBinary(file))
+			return BinaryTrace.getSourceName(file);
+		return file.getName();
+	}
+
+	/**
+	 * Moves to the next record (returns false at the end of the trace).
+	 */
+	public abstract boolean next();
+
+	/**
+	 * Gives the id of the current record.
+	 */
+	public abstract int getId();
+
+	/**
+	 * Gives the i-th value of the current record.
+	 */
+	public abstract double getValue(int i);
+
+	public abstract void close();
+
+}
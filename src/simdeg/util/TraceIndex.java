@@ -0,0 +1,200 @@
+package simdeg.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Index of a trace file giving, for each distinct id of a given column, the
+ * offset of the first line in which it appears. The ids are kept in their
+ * order of first appearance. The index is persisted next to the trace in a
+ * sidecar file, which is reused as long as the trace is not modified.
+ */
+public class TraceIndex {
+
+	/** Logger */
+	private static final Logger logger = Logger.getLogger(TraceIndex.class
+			.getName());
+
+	/** Extension of the sidecar file */
+	private static final String SUFFIX = ".index";
+
+	/** First bytes of any sidecar file */
+	private static final int MAGIC = 0x53444749;
+
+	/** Ids in their order of first appearance */
+	private final int[] ids;
+
+	/** Offset of the first line containing each id */
+	private final long[] offsets;
+
+	/** Ids sorted for searching an offset */
+	private int[] sortedIds = null;
+
+	/** Offsets corresponding to the sorted ids */
+	private long[] sortedOffsets = null;
+
+	private TraceIndex(int[] ids, long[] offsets) {
+		this.ids = ids;
+		this.offsets = offsets;
+	}
+
+	/**
+	 * Reads the index of a trace from its sidecar file, or builds it with a
+	 * single sequential read of the trace and saves it. The first lines of the
+	 * trace are ignored and the ids are read in the given column.
+	 */
+	public static TraceIndex getIndex(File trace, int headerLines, int column)
+			throws IOException {
+		final File sidecar = new File(trace.getPath() + SUFFIX);
+		TraceIndex index = read(sidecar, trace, headerLines, column);
+		if (index != null) {
+			logger.fine("Index of " + trace + " read from " + sidecar);
+			return index;
+		}
+		index = build(trace, headerLines, column);
+		try {
+			index.write(sidecar, trace, headerLines, column);
+			logger.fine("Index of " + trace + " saved in " + sidecar);
+		} catch (IOException e) {
+			logger.warning("Index of " + trace + " cannot be saved in "
+					+ sidecar);
+		}
+		return index;
+	}
+
+	/**
+	 * Builds the index by reading the whole trace.
+	 */
+	private static TraceIndex build(File trace, int headerLines, int column)
+			throws IOException {
+		final TraceReader reader = new TraceReader(trace);
+		for (int i = 0; i < headerLines; i++)
+			reader.nextLine();
+		final Set<Integer> known = new HashSet<Integer>();
+		int[] ids = new int[1024];
+		long[] offsets = new long[1024];
+		int count = 0;
+		while (reader.hasNext()) {
+			final long offset = reader.getOffset();
+			for (int i = 0; i < column; i++)
+				reader.skip();
+			final int id = reader.nextInt();
+			if (known.add(id)) {
+				if (count == ids.length) {
+					ids = Arrays.copyOf(ids, 2 * count);
+					offsets = Arrays.copyOf(offsets, 2 * count);
+				}
+				ids[count] = id;
+				offsets[count] = offset;
+				count++;
+			}
+			reader.nextLine();
+		}
+		reader.close();
+		return new TraceIndex(Arrays.copyOf(ids, count), Arrays.copyOf(
+				offsets, count));
+	}
+
+	/**
+	 * Reads the sidecar file if it corresponds to the current trace (returns
+	 * null otherwise).
+	 */
+	private static TraceIndex read(File sidecar, File trace, int headerLines,
+			int column) throws IOException {
+		if (!sidecar.exists())
+			return null;
+		final DataInputStream input = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(sidecar)));
+		try {
+			if (input.readInt() != MAGIC || input.readLong() != trace.length()
+					|| input.readLong() != trace.lastModified()
+					|| input.readInt() != headerLines
+					|| input.readInt() != column)
+				return null;
+			final int count = input.readInt();
+			final int[] ids = new int[count];
+			final long[] offsets = new long[count];
+			for (int i = 0; i < count; i++) {
+				ids[i] = input.readInt();
+				offsets[i] = input.readLong();
+			}
+			return new TraceIndex(ids, offsets);
+		} catch (IOException e) {
+			logger.warning("Index " + sidecar + " is corrupted");
+			return null;
+		} finally {
+			input.close();
+		}
+	}
+
+	private void write(File sidecar, File trace, int headerLines, int column)
+			throws IOException {
+		final DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(sidecar)));
+		try {
+			output.writeInt(MAGIC);
+			output.writeLong(trace.length());
+			output.writeLong(trace.lastModified());
+			output.writeInt(headerLines);
+			output.writeInt(column);
+			output.writeInt(ids.length);
+			for (int i = 0; i < ids.length; i++) {
+				output.writeInt(ids[i]);
+				output.writeLong(offsets[i]);
+			}
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * Number of distinct ids.
+	 */
+	public int size() {
+		return ids.length;
+	}
+
+	/**
+	 * Gives the id that appears in the i-th position.
+	 */
+	public int getId(int i) {
+		return ids[i];
+	}
+
+	/**
+	 * Gives the offset of the first line containing the id (-1 if the id is
+	 * absent).
+	 */
+	public long getOffset(int id) {
+		if (sortedIds == null)
+			sort();
+		final int i = Arrays.binarySearch(sortedIds, id);
+		if (i < 0)
+			return -1L;
+		return sortedOffsets[i];
+	}
+
+	private void sort() {
+		final long[] keys = new long[ids.length];
+		for (int i = 0; i < ids.length; i++)
+			keys[i] = ((long) ids[i] << 32) | i;
+		Arrays.sort(keys);
+		sortedIds = new int[ids.length];
+		sortedOffsets = new long[ids.length];
+		for (int i = 0; i < keys.length; i++) {
+			sortedIds[i] = (int) (keys[i] >> 32);
+			sortedOffsets[i] = offsets[(int) keys[i]];
+		}
+	}
+
+}
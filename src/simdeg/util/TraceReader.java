@@ -0,0 +1,375 @@
+package simdeg.util;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.InputMismatchException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Reader of whitespace separated trace files. It provides the same features
+ * than the few methods of java.util.Scanner that are used for reading traces,
+ * but the numbers are parsed directly from the bytes read with a large NIO
+ * buffer without any regular expression nor allocation. The parsed values are
+ * exactly the same than those obtained with Integer.parseInt and
+ * Double.parseDouble.
+ */
+public class TraceReader implements Closeable {
+
+	/** Default size of the buffer */
+	private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Maximal number of significant digits accumulated in the mantissa (they
+	 * always fit in a long). The fast conversion also requires the mantissa
+	 * to be lower than MAX_EXACT, hence at most 15 or 16 significant digits.
+	 */
+	private static final int MAX_DIGITS = 18;
+
+	/** Greatest integer exactly represented by a double */
+	private static final long MAX_EXACT = 1L << 53;
+
+	/** Powers of ten that are exactly represented by a double */
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4,
+			1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+			1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/** Channel from which the trace is read */
+	private final FileChannel channel;
+
+	/** Buffer wrapping the bytes */
+	private final ByteBuffer buffer;
+
+	/** Bytes that are read */
+	private final byte[] bytes;
+
+	/** Offset in the file of the first byte in the buffer */
+	private long base = 0L;
+
+	/** Position of the next byte to be read */
+	private int position = 0;
+
+	/** Number of valid bytes */
+	private int limit = 0;
+
+	/** Characters of the current number (used when it is not parsed directly) */
+	private char[] token = new char[32];
+
+	public TraceReader(File file) throws IOException {
+		this(file, DEFAULT_BUFFER_SIZE);
+	}
+
+	public TraceReader(File file, int bufferSize) throws IOException {
+		this.channel = new FileInputStream(file).getChannel();
+		this.bytes = new byte[bufferSize];
+		this.buffer = ByteBuffer.wrap(bytes);
+	}
+
+	/**
+	 * Reads the next bytes of the file (returns false at the end of the file).
+	 */
+	private boolean fill() {
+		base += limit;
+		position = 0;
+		limit = 0;
+		buffer.clear();
+		try {
+			int count = 0;
+			while (count == 0)
+				count = channel.read(buffer);
+			if (count > 0)
+				limit = count;
+		} catch (IOException e) {
+			throw new IllegalStateException("Problem reading the trace", e);
+		}
+		return limit > 0;
+	}
+
+	/**
+	 * Returns the next byte (-1 at the end of the file).
+	 */
+	private int read() {
+		if (position == limit && !fill())
+			return -1;
+		return bytes[position++] & 0xFF;
+	}
+
+	/**
+	 * Gives the offset in the file of the next byte to be read.
+	 */
+	public long getOffset() {
+		return base + position;
+	}
+
+	/**
+	 * Moves to the given offset in the file.
+	 */
+	public void seek(long offset) {
+		try {
+			channel.position(offset);
+		} catch (IOException e) {
+			throw new IllegalStateException("Problem seeking in the trace", e);
+		}
+		base = offset;
+		position = 0;
+		limit = 0;
+	}
+
+	private static boolean isWhitespace(int c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f'
+				|| c == 0x0B;
+	}
+
+	private void skipWhitespaces() {
+		int c = read();
+		while (isWhitespace(c))
+			c = read();
+		if (c != -1)
+			position--;
+	}
+
+	/**
+	 * Tests if there is another token in the file.
+	 */
+	public boolean hasNext() {
+		skipWhitespaces();
+		return position < limit;
+	}
+
+	/**
+	 * Skips the next token.
+	 */
+	public void skip() {
+		skipWhitespaces();
+		int c = read();
+		while (c != -1 && !isWhitespace(c))
+			c = read();
+	}
+
+	/**
+	 * Skips the remaining of the current line.
+	 */
+	public void nextLine() {
+		int c = read();
+		while (c != -1 && c != '\n')
+			c = read();
+	}
+
+	/**
+	 * Consumes the rest of a token that is not the expected number.
+	 */
+	private InputMismatchException mismatch(int c) {
+		while (c != -1 && !isWhitespace(c))
+			c = read();
+		return new InputMismatchException("Unexpected token in the trace");
+	}
+
+	/**
+	 * Parses the next token as an integer.
+	 */
+	public int nextInt() {
+		skipWhitespaces();
+		int c = read();
+		if (c == -1)
+			throw new InputMismatchException("End of the trace");
+		final boolean negative = c == '-';
+		if (c == '-' || c == '+')
+			c = read();
+		if (c < '0' || c > '9')
+			throw mismatch(c);
+		long value = 0L;
+		while (c >= '0' && c <= '9') {
+			value = value * 10L + (c - '0');
+			if (value > Integer.MAX_VALUE + 1L)
+				throw mismatch(c);
+			c = read();
+		}
+		if (c != -1 && !isWhitespace(c))
+			throw mismatch(c);
+		if (c != -1)
+			position--;
+		if (negative)
+			value = -value;
+		if (value > Integer.MAX_VALUE)
+			throw new InputMismatchException("Integer out of range");
+		return (int) value;
+	}
+
+	private void append(int length, int c) {
+		if (length == token.length) {
+			final char[] larger = new char[2 * token.length];
+			System.arraycopy(token, 0, larger, 0, token.length);
+			token = larger;
+		}
+		token[length] = (char) c;
+	}
+
+	/**
+	 * Parses the next token as a real. Numbers whose significant digits form
+	 * an integer lower than 2^53 and whose exponent is small are exactly
+	 * converted with a single floating point operation, others are delegated
+	 * to Double.parseDouble.
+	 */
+	public double nextDouble() {
+		skipWhitespaces();
+		int c = read();
+		if (c == -1)
+			throw new InputMismatchException("End of the trace");
+		int length = 0;
+		final boolean negative = c == '-';
+		if (c == '-' || c == '+') {
+			append(length++, c);
+			c = read();
+		}
+		long mantissa = 0L;
+		int digits = 0;
+		int exponent = 0;
+		boolean valid = false;
+		boolean exact = true;
+		/* Integer part */
+		while (c >= '0' && c <= '9') {
+			append(length++, c);
+			valid = true;
+			if (digits < MAX_DIGITS) {
+				mantissa = mantissa * 10L + (c - '0');
+				if (mantissa != 0L)
+					digits++;
+			} else {
+				exponent++;
+				exact &= c == '0';
+			}
+			c = read();
+		}
+		/* Fractional part */
+		if (c == '.') {
+			append(length++, c);
+			c = read();
+			while (c >= '0' && c <= '9') {
+				append(length++, c);
+				valid = true;
+				if (digits < MAX_DIGITS) {
+					mantissa = mantissa * 10L + (c - '0');
+					if (mantissa != 0L)
+						digits++;
+					exponent--;
+				} else
+					exact &= c == '0';
+				c = read();
+			}
+		}
+		if (!valid)
+			throw mismatch(c);
+		/* Exponent */
+		if (c == 'e' || c == 'E') {
+			append(length++, c);
+			c = read();
+			boolean negativeExponent = false;
+			if (c == '-' || c == '+') {
+				append(length++, c);
+				negativeExponent = c == '-';
+				c = read();
+			}
+			if (c < '0' || c > '9')
+				throw mismatch(c);
+			int value = 0;
+			while (c >= '0' && c <= '9') {
+				append(length++, c);
+				if (value < 10000)
+					value = value * 10 + (c - '0');
+				c = read();
+			}
+			exponent += negativeExponent ? -value : value;
+		}
+		if (c != -1 && !isWhitespace(c))
+			throw mismatch(c);
+		if (c != -1)
+			position--;
+		/* Fast path */
+		if (exact && mantissa < MAX_EXACT
+				&& exponent >= -(POWERS_OF_TEN.length - 1)
+				&& exponent <= POWERS_OF_TEN.length - 1) {
+			final double value = exponent < 0 ? mantissa
+					/ POWERS_OF_TEN[-exponent] : mantissa
+					* POWERS_OF_TEN[exponent];
+			return negative ? -value : value;
+		}
+		return Double.parseDouble(new String(token, 0, length));
+	}
+
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			throw new IllegalStateException("Problem closing the trace", e);
+		}
+	}
+
+	/**
+	 * Compares the time needed for reading a synthetic availability trace
+	 * with java.util.Scanner and with this reader. The size of the trace in
+	 * megabytes may be given as argument (1 GB by default).
+	 */
+	public static void main(String[] args) throws IOException {
+		Locale.setDefault(Locale.ENGLISH);
+		final long size = (args.length > 0 ? Long.parseLong(args[0]) : 1024L) << 20;
+		final File file = File.createTempFile("trace", ".tab");
+		file.deleteOnExit();
+
+		/* Generate the trace */
+		final Random random = new Random(0L);
+		final Writer output = new BufferedWriter(new FileWriter(file),
+				DEFAULT_BUFFER_SIZE);
+		long written = 0L;
+		double date = 0.0d;
+		while (written < size) {
+			date += random.nextInt(100000) / 1000.0d;
+			final String line = random.nextInt(1000000) + "\t" + date + "\t"
+					+ (date + random.nextInt(10000000) / 1000.0d) + "\n";
+			output.write(line);
+			written += line.length();
+		}
+		output.close();
+		System.out.println("Trace of " + (written >> 20) + " MB generated");
+
+		/* Read it with a scanner */
+		long start = System.currentTimeMillis();
+		final Scanner scanner = new Scanner(file);
+		long scannerSum = 0L;
+		double scannerDates = 0.0d;
+		while (scanner.hasNext()) {
+			scannerSum += scanner.nextInt();
+			scannerDates += scanner.nextDouble();
+			scannerDates += scanner.nextDouble();
+		}
+		scanner.close();
+		final long scannerTime = System.currentTimeMillis() - start;
+		System.out.println("Scanner: " + scannerTime + " ms");
+
+		/* Read it with the current reader */
+		start = System.currentTimeMillis();
+		final TraceReader reader = new TraceReader(file);
+		long readerSum = 0L;
+		double readerDates = 0.0d;
+		while (reader.hasNext()) {
+			readerSum += reader.nextInt();
+			readerDates += reader.nextDouble();
+			readerDates += reader.nextDouble();
+		}
+		reader.close();
+		final long readerTime = System.currentTimeMillis() - start;
+		System.out.println("TraceReader: " + readerTime + " ms");
+
+		if (scannerSum != readerSum || scannerDates != readerDates)
+			System.out.println("Both readers disagree");
+		System.out.println("Speedup: " + (double) scannerTime / readerTime);
+	}
+
+}
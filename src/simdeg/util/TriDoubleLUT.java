@@ -0,0 +1,103 @@
+package simdeg.util;
+
+import java.util.logging.Logger;
+
+/**
+ * Class creating Look-Up Table objects containing previously computed
+ * results. For ternary functions of doubles (with trilinear interpolation if
+ * requested).
+ */
+public final class TriDoubleLUT extends DoubleLUT {
+
+    /** Logger */
+    private static final Logger logger
+        = Logger.getLogger(TriDoubleLUT.class.getName());
+
+    /**
+     * Function to which we want to minimize calls.
+     */
+    public interface Function {
+        double compute(double x, double y, double z);
+    }
+
+    private final Function function;
+
+    /** Lower bounds of the ranges */
+    private final double lower1, lower2, lower3;
+
+    /** Inverses of the steps of the ranges */
+    private final double scale1, scale2, scale3;
+
+    /**
+     * Numbers of samples (the sample (i, j, k) is at
+     * (i * sample2 + j) * sample3 + k)
+     */
+    private final int sample1, sample2, sample3;
+
+    /**
+     * Constructs the LUT for the ranges {lower, upper, step} without
+     * interpolation.
+     */
+    public TriDoubleLUT(Function function, double[] range1, double[] range2,
+            double[] range3) {
+        this(function, range1, range2, range3, false);
+    }
+
+    public TriDoubleLUT(Function function, double[] range1, double[] range2,
+            double[] range3, boolean interpolated) {
+        super(interpolated, range1, range2, range3);
+        this.function = function;
+        this.lower1 = range1[0];
+        this.lower2 = range2[0];
+        this.lower3 = range3[0];
+        this.scale1 = 1.0d / range1[2];
+        this.scale2 = 1.0d / range2[2];
+        this.scale3 = 1.0d / range3[2];
+        this.sample1 = getSample(range1);
+        this.sample2 = getSample(range2);
+        this.sample3 = getSample(range3);
+    }
+
+    protected double computeValue(int index) {
+        return function.compute(getValueIndex(index / (sample2 * sample3), 0),
+                getValueIndex(index / sample3 % sample2, 1),
+                getValueIndex(index % sample3, 2));
+    }
+
+    private double getStoredValue(int i, int j, int k) {
+        return getStoredValue((i * sample2 + j) * sample3 + k);
+    }
+
+    /**
+     * Standard method for retrieving a given value.
+     */
+    public double getValue(double x, double y, double z) {
+        final double xPosition = getPosition(x, lower1, scale1, sample1);
+        final double yPosition = getPosition(y, lower2, scale2, sample2);
+        final double zPosition = getPosition(z, lower3, scale3, sample3);
+        if (xPosition < 0.0d || yPosition < 0.0d || zPosition < 0.0d) {
+            logger.fine("Value out of the range stored in the LUT");
+            return function.compute(x, y, z);
+        }
+        final int i = (int) xPosition;
+        final int j = (int) yPosition;
+        final int k = (int) zPosition;
+        if (!interpolated)
+            return getStoredValue(i, j, k);
+        final int nextI = Math.min(i + 1, sample1 - 1);
+        final int nextJ = Math.min(j + 1, sample2 - 1);
+        final int nextK = Math.min(k + 1, sample3 - 1);
+        final double yWeight = yPosition - j;
+        final double zWeight = zPosition - k;
+        return interpolate(interpolate(interpolate(getStoredValue(i, j, k),
+                        getStoredValue(i, j, nextK), zWeight),
+                    interpolate(getStoredValue(i, nextJ, k),
+                        getStoredValue(i, nextJ, nextK), zWeight), yWeight),
+                interpolate(interpolate(getStoredValue(nextI, j, k),
+                        getStoredValue(nextI, j, nextK), zWeight),
+                    interpolate(getStoredValue(nextI, nextJ, k),
+                        getStoredValue(nextI, nextJ, nextK), zWeight), yWeight),
+                xPosition - i);
+    }
+
+}
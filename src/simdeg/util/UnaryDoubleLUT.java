@@ -0,0 +1,70 @@
+package simdeg.util;
+
+import java.util.logging.Logger;
+
+/**
+ * Class creating Look-Up Table objects containing previously computed
+ * results. For unary functions of doubles.
+ */
+public final class UnaryDoubleLUT extends DoubleLUT {
+
+    /** Logger */
+    private static final Logger logger
+        = Logger.getLogger(UnaryDoubleLUT.class.getName());
+
+    /**
+     * Function to which we want to minimize calls.
+     */
+    public interface Function {
+        double compute(double x);
+    }
+
+    private final Function function;
+
+    /** Lower bound of the range */
+    private final double lower;
+
+    /** Inverse of the step of the range */
+    private final double scale;
+
+    /** Number of samples */
+    private final int sample;
+
+    /**
+     * Constructs the LUT for the range {lower, upper, step} without
+     * interpolation.
+     */
+    public UnaryDoubleLUT(Function function, double[] range) {
+        this(function, range, false);
+    }
+
+    public UnaryDoubleLUT(Function function, double[] range,
+            boolean interpolated) {
+        super(interpolated, range);
+        this.function = function;
+        this.lower = range[0];
+        this.scale = 1.0d / range[2];
+        this.sample = getSample(range);
+    }
+
+    protected double computeValue(int index) {
+        return function.compute(getValueIndex(index, 0));
+    }
+
+    /**
+     * Standard method for retrieving a given value.
+     */
+    public double getValue(double x) {
+        final double position = getPosition(x, lower, scale, sample);
+        if (position < 0.0d) {
+            logger.fine("Value out of the range stored in the LUT");
+            return function.compute(x);
+        }
+        final int i = (int) position;
+        if (!interpolated)
+            return getStoredValue(i);
+        return interpolate(getStoredValue(i), getStoredValue(Math.min(i + 1,
+                        sample - 1)), position - i);
+    }
+
+}
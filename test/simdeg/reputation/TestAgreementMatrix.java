@@ -177,4 +177,65 @@ public class TestAgreementMatrix {
         matrix.getAgreements(workers2);
     }
 
+    /**
+     * Matrix computing the summary of the largest set with a full scan.
+     */
+    private static class ScannedMatrix extends AgreementMatrix<Worker> {
+
+        private ScannedMatrix() {
+            super(new BetaEstimator(1.0d));
+        }
+
+        private int scanAgreerMajority() {
+            final Set<Worker> largest = getLargest();
+            int count = 0;
+            for (Set<Worker> set : getSets(getAll()))
+                if (getEstimator(set, largest).getSampleCount() > set.size()
+                        && getEstimator(set, largest).getSampleCount(0.0d)
+                        == 0.0d)
+                    count += set.size();
+            return count;
+        }
+
+        private double scanGeneralError() {
+            final Set<Worker> largest = getLargest();
+            final Set<Set<Worker>> sets = getSets(getAll());
+            double error = 0.0d;
+            for (Set<Worker> set : sets)
+                error += getEstimator(set, largest).getError();
+            return error / sets.size();
+        }
+
+    }
+
+    /**
+     * Compares the incremental summary of the largest set with a full scan
+     * while workers agree, disagree, leave and join.
+     */
+    @Test public void summary() {
+        final ScannedMatrix matrix = new ScannedMatrix();
+        final Random random = new Random(0L);
+        final Worker[] array = workers.toArray(new Worker[0]);
+        matrix.addAll(workers);
+        for (int i=0; i<5000; i++) {
+            final Worker worker1 = array[random.nextInt(array.length)];
+            final Worker worker2 = array[random.nextInt(array.length)];
+            final int choice = random.nextInt(20);
+            if (choice == 0) {
+                final Set<Worker> removed = new HashSet<Worker>();
+                removed.add(worker1);
+                matrix.removeAll(removed);
+                matrix.addAll(removed);
+            } else if (choice == 1 || !workers1.contains(worker1)
+                    || !workers1.contains(worker2))
+                matrix.decreaseAgreement(worker1, worker2);
+            else
+                matrix.increaseAgreement(worker1, worker2);
+            assertEquals(matrix.scanAgreerMajority(),
+                    matrix.countAgreerMajority());
+            assertEquals(matrix.scanGeneralError(),
+                    matrix.getGeneralError(), 1E-9d);
+        }
+    }
+
 }
\ No newline at end of file
@@ -116,6 +116,24 @@ public class TestAgreementReputationSystem {
                 fraction.getError() > MIN_ERROR);
     }
 
+    @Test public void getCollusionLikelihoodCache() {
+        AgreementReputationSystem<Worker> ars = new AgreementReputationSystem<Worker>();
+        ars.addAllWorkers(workers);
+        /* The same observed groups share the estimate */
+        final Set<Worker> set = new HashSet<Worker>(workersList.get(1));
+        RV collusion1 = ars.getCollusionLikelihood(set);
+        RV collusion2 = ars.getCollusionLikelihood(set);
+        assertEquals(1L, ars.getCacheMisses());
+        assertEquals(1L, ars.getCacheHits());
+        assertEquals(collusion1.getMean(), collusion2.getMean(), 0.0d);
+        assertTrue("Cached estimates must not be shared", collusion1 != collusion2);
+        /* Any update of the agreement matrix invalidates the cache */
+        ars.addAllWorkers(addElement(new Worker() {}, new HashSet<Worker>()));
+        ars.getCollusionLikelihood(set);
+        assertEquals(1L, ars.getCacheHits());
+        assertEquals(2L, ars.getCacheMisses());
+    }
+
     @Test public void scenarioSimple() {
         /* Initializations and declarations */
         AgreementReputationSystem<Worker> ars = new AgreementReputationSystem<Worker>();
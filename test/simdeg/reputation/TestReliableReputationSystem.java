@@ -37,6 +37,27 @@ public class TestReliableReputationSystem {
                 reliability.getError() > MIN_ERROR);
     }
 
+    @Test public void getReliabilityRemovedWorker() {
+        ReliableReputationSystem<Worker> rrs
+            = new ReliableReputationSystem<Worker>();
+        rrs.addAllWorkers(workers);
+        Job job = new Job() {};
+        Result result = new Result() {};
+        for (Worker w : workers)
+            rrs.setWorkerResult(w, job, result);
+        rrs.setCertifiedResult(job, result);
+        RV reliability = rrs.getReliability(worker);
+        final String kept = reliability.toString();
+        /* The identifier of the removed worker is reused by the new one */
+        Set<Worker> removed = new HashSet<Worker>();
+        removed.add(worker);
+        rrs.removeAllWorkers(removed);
+        Set<Worker> added = new HashSet<Worker>();
+        added.add(new Worker() {});
+        rrs.addAllWorkers(added);
+        assertEquals(kept, reliability.toString());
+    }
+
     @Test(expected=NoSuchElementException.class)
     public void getReliabilityException() {
         ReliableReputationSystem<Worker> rrs
@@ -2,6 +2,7 @@ package simdeg.scheduling;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -648,4 +649,104 @@ public class TestBOINC implements SchedulerListener {
 				getCertifiedResult(job2));
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Builds two active jobs where the youngest has more results and gives the
+	 * job pulled afterwards by a new worker.
+	 */
+	private Job pullAfterTwoActiveJobs(JobOrder jobOrder, Job job1, Job job2) {
+		BOINCScheduler<Job, Result> scheduler = new BOINCScheduler<Job, Result>(
+				1, 3, 10);
+		scheduler.putSchedulerListener(this);
+		scheduler.setJobOrder(jobOrder);
+		Worker worker1 = new Worker() {
+		};
+		Worker worker2 = new Worker() {
+		};
+		Worker worker3 = new Worker() {
+		};
+		Result result = new Result() {
+		};
+
+		/* The second job is activated before the first one */
+		scheduler.addJob(job1);
+		scheduler.addJob(job2);
+		assertEquals("Jobs must be the same", job1, scheduler
+				.submitResultAndPullJob(worker1, null, null));
+		assertEquals("Jobs must be the same", job2, scheduler
+				.submitResultAndPullJob(worker2, null, null));
+		assertNull("No job must be available", scheduler
+				.submitResultAndPullJob(worker2, job2, result));
+
+		/* The second job obtains a second result */
+		assertEquals("Jobs must be the same", job2, scheduler
+				.submitResultAndPullJob(worker1, job1, result));
+		assertNull("No job must be available", scheduler
+				.submitResultAndPullJob(worker1, job2, result));
+		assertNull("Result must not be certified yet", getCertifiedResult(job2));
+
+		/* The last worker chooses between both jobs */
+		return scheduler.submitResultAndPullJob(worker3, null, null);
+	}
+
+	/**
+	 * Tests that the active jobs are duplicated according to the job order.
+	 */
+	@Test
+	public void jobOrder() {
+		Job job1 = new Job() {
+		};
+		Job job2 = new Job() {
+		};
+		assertEquals("Oldest job must be chosen", job1, pullAfterTwoActiveJobs(
+				JobOrder.OLDEST_FIRST, job1, job2));
+		Job job3 = new Job() {
+		};
+		Job job4 = new Job() {
+		};
+		assertEquals("Job with most results must be chosen", job4,
+				pullAfterTwoActiveJobs(JobOrder.CLOSEST_TO_QUORUM_FIRST, job3,
+						job4));
+	}
+
+	/**
+	 * Tests that the state of the certified jobs is released: a million jobs
+	 * must be treated without the memory used by the scheduler growing.
+	 */
+	@Test(timeout = 60000)
+	public void terminatedJobsReleased() {
+		final int JOBS = 1000000;
+		BOINCScheduler<Job, Result> scheduler = new BOINCScheduler<Job, Result>(
+				1, 1, 1);
+		Worker worker = new Worker() {
+		};
+		Result result = new Result() {
+		};
+		final Runtime runtime = Runtime.getRuntime();
+		long usedMemory = 0L;
+		scheduler.addJob(new Job() {
+		});
+		Job job = scheduler.submitResultAndPullJob(worker, null, null);
+		for (int i = 1; i <= JOBS; i++) {
+			if (i < JOBS)
+				scheduler.addJob(new Job() {
+				});
+			job = scheduler.submitResultAndPullJob(worker, job, result);
+			assertTrue("Only the current job may be kept",
+					scheduler.votingPools.size() <= 1);
+			if (i == JOBS / 10) {
+				System.gc();
+				usedMemory = runtime.totalMemory() - runtime.freeMemory();
+			}
+		}
+		assertNull("No job must be available", job);
+		assertEquals("All jobs must be terminated", JOBS, scheduler
+				.getTerminatedJobsCount());
+		assertTrue("No voting pool must remain", scheduler.votingPools
+				.isEmpty());
+		System.gc();
+		assertTrue("Memory must not grow with the number of jobs", runtime
+				.totalMemory()
+				- runtime.freeMemory() < usedMemory + (32L << 20));
+	}
+
+}
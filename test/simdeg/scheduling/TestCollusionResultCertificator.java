@@ -3,8 +3,12 @@ package simdeg.scheduling;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -203,6 +207,34 @@ public class TestCollusionResultCertificator {
 				correctProba.get(result3).getMean(), EPSILON);
 	}
 
+	/**
+	 * The memoization of the intermediate probabilities must not change the
+	 * estimations.
+	 */
+	@Test
+	public void memoizedCollusionVotingPool() {
+		final CollusionResultCertificator plain = new CollusionResultCertificator(
+				false);
+		plain.setReputationSystem(certificator.reputationSystem);
+		final VotingPool<Result> pool = new VotingPool<Result>(null);
+		final Result result1 = new ResultTest();
+		final Result result2 = new ResultTest();
+		final Result result3 = new ResultTest();
+		pool.put(workers[0], result1);
+		pool.put(workers[1], result1);
+		pool.put(workers[3], result2);
+		pool.put(workers[4], result2);
+		pool.put(workers[6], result3);
+		pool.put(workers[7], result3);
+		final Map<Result, RV> memoizedProba = certificator
+				.correctProbability(pool);
+		final Map<Result, RV> plainProba = plain.correctProbability(pool);
+		assertEquals(plainProba.keySet(), memoizedProba.keySet());
+		for (Result result : plainProba.keySet())
+			assertEquals(plainProba.get(result).getMean(), memoizedProba.get(
+					result).getMean(), 0.0d);
+	}
+
 	/**
 	 * Tests that the approach provides a lower bound when the number of result
 	 * groups is two. The probabilities are actually 0.4997/0.8997 and
@@ -275,6 +307,86 @@ public class TestCollusionResultCertificator {
 		stochastic = false;
 	}
 
+	/**
+	 * The estimated groups contain workers outside of the voting pool, such
+	 * that the collusion events involve more workers than the masks were
+	 * first sized for. Each of the three result groups colludes with proba
+	 * 0.1 and never with anyone else.
+	 */
+	@Test
+	public void outsideWorkersVotingPool() {
+		final Worker[] inside = new Worker[30];
+		for (int i = 0; i < inside.length; i++)
+			inside[i] = new Worker() {
+			};
+		final List<Set<Worker>> colls = new ArrayList<Set<Worker>>();
+		for (int i = 0; i < 3; i++)
+			colls.add(new HashSet<Worker>(Arrays.asList(inside).subList(
+					10 * i, 10 * i + 10)));
+		final CollusionResultCertificator outside = new CollusionResultCertificator();
+		outside.setReputationSystem(new ReputationSystem<Worker>() {
+			public void setWorkerResult(Worker worker, Job job, Result result) {
+			}
+
+			public void setCertifiedResult(Job job, Result result) {
+			}
+
+			public void removeAllWorkers(Set<? extends Worker> workers) {
+			}
+
+			public RV getReliability(Worker worker) {
+				return null;
+			}
+
+			public void addAllWorkers(Set<? extends Worker> workers) {
+			}
+
+			public Map<Worker, simdeg.util.RV> getCollusionLikelihood(
+					Worker worker, Set<Worker> workers) {
+				return null;
+			}
+
+			public RV getCollusionLikelihood(Set<Worker> workers) {
+				for (Set<Worker> coll : colls)
+					if (coll.containsAll(workers))
+						return outside.new RV(0.1d, 0.0d);
+				return outside.new RV(0.0d, 0.0d);
+			}
+
+			public RV getColludersFraction() {
+				return null;
+			}
+
+			/** Each group starts with a new worker outside the pool */
+			public Set<? extends Set<Worker>> getGroups(
+					Collection<Worker> workers) {
+				final Set<Set<Worker>> result = new HashSet<Set<Worker>>();
+				for (Worker worker : workers) {
+					final Set<Worker> group = new LinkedHashSet<Worker>();
+					group.add(new Worker() {
+					});
+					group.add(worker);
+					result.add(group);
+				}
+				return result;
+			}
+
+			public Set<Worker> getLargestGroup() {
+				return null;
+			}
+		});
+		final VotingPool<Result> pool = new VotingPool<Result>(null);
+		final Result[] results = new Result[3];
+		for (int i = 0; i < results.length; i++)
+			results[i] = new ResultTest();
+		for (int i = 0; i < inside.length; i++)
+			pool.put(inside[i], results[i / 10]);
+		final Map<Result, RV> correctProba = outside.correctProbability(pool);
+		for (Result result : results)
+			assertEquals(0.009d / 0.028d, correctProba.get(result).getMean(),
+					EPSILON);
+	}
+
 	private class ResultTest extends HashableObject implements Result {
 	}
 
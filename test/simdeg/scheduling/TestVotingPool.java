@@ -0,0 +1,134 @@
+package simdeg.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import simdeg.reputation.Result;
+import simdeg.reputation.Worker;
+
+/**
+ * Checks that the array based voting pool behaves as a map and groups the
+ * workers by result.
+ */
+public class TestVotingPool {
+
+	private static Worker[] newWorkers(int count) {
+		final Worker[] workers = new Worker[count];
+		for (int i = 0; i < count; i++)
+			workers[i] = new Worker() {
+			};
+		return workers;
+	}
+
+	@Test
+	public void mapBehavior() {
+		final Worker[] workers = newWorkers(10);
+		final Result result = new Result() {
+		};
+		final VotingPool<Result> pool = new VotingPool<Result>(null);
+		final Map<Worker, Result> map = new HashMap<Worker, Result>();
+		for (int i = 0; i < workers.length; i++) {
+			assertNull(pool.put(workers[i], null));
+			map.put(workers[i], null);
+		}
+		assertFalse("Results are missing", pool.isComplete());
+		for (int i = 0; i < workers.length; i += 2) {
+			assertNull(pool.put(workers[i], result));
+			map.put(workers[i], result);
+		}
+		for (int i = 1; i < workers.length; i += 4) {
+			assertNull(pool.remove(workers[i]));
+			map.remove(workers[i]);
+		}
+		assertEquals("Pool must behave as a map", map, pool);
+		assertEquals("Pool must behave as a map", map.keySet(), pool.keySet());
+		assertEquals(result, pool.get(workers[0]));
+		assertFalse(pool.containsKey(workers[1]));
+		assertTrue(pool.containsKey(workers[3]));
+
+		/* Removes the pending workers with the iterator */
+		final Iterator<Worker> iterator = pool.keySet().iterator();
+		while (iterator.hasNext())
+			if (pool.get(iterator.next()) == null)
+				iterator.remove();
+		assertEquals(workers.length / 2, pool.size());
+		assertTrue("All results must be there", pool.isComplete());
+	}
+
+	@Test
+	public void grouping() {
+		final Worker[] workers = newWorkers(7);
+		final Result result1 = new Result() {
+		};
+		final Result result2 = new Result() {
+		};
+		final VotingPool<Result> pool = new VotingPool<Result>(null);
+		for (int i = 0; i < workers.length; i++)
+			pool.put(workers[i], i % 3 == 0 ? result1 : result2);
+		assertEquals(2, pool.getResultsCount());
+		assertEquals(result1, pool.getResult(0));
+		assertEquals(3, pool.getVotes(0));
+		assertEquals(result2, pool.getResult(1));
+		assertEquals(4, pool.getVotes(1));
+		assertEquals(result2, pool.getMajorityResult());
+		assertEquals(4, pool.getMajorityVotes());
+		final Set<Worker> set = new HashSet<Worker>();
+		set.add(workers[0]);
+		set.add(workers[3]);
+		set.add(workers[6]);
+		assertEquals(set, pool.getWorkers(0));
+
+		/* The grouping follows the modifications */
+		pool.remove(workers[0]);
+		pool.put(workers[3], result2);
+		assertEquals(2, pool.getResultsCount());
+		assertEquals(1, pool.getVotes(0));
+		assertEquals(result2, pool.getResult(1));
+		assertEquals(5, pool.getVotes(1));
+		assertEquals(pool.getJobsByResult().get(result2), pool.getWorkers(1));
+		assertEquals(result2, pool.getMajorityResult());
+		assertEquals(5, pool.getMajorityVotes());
+	}
+
+	@Test
+	public void majorityTie() {
+		final Worker[] workers = newWorkers(4);
+		final Result result1 = new Result() {
+		};
+		final Result result2 = new Result() {
+		};
+		final VotingPool<Result> pool = new VotingPool<Result>(null);
+		assertNull(pool.getMajorityResult());
+		assertEquals(0, pool.getMajorityVotes());
+		pool.put(workers[0], result1);
+		pool.put(workers[1], result2);
+		pool.put(workers[2], result2);
+		assertEquals(result2, pool.getMajorityResult());
+
+		/* The first result arrived wins in case of tie */
+		pool.put(workers[3], result1);
+		assertEquals(result1, pool.getMajorityResult());
+		assertEquals(2, pool.getMajorityVotes());
+
+		/* The first result disappears */
+		pool.remove(workers[0]);
+		pool.remove(workers[3]);
+		assertEquals(1, pool.getResultsCount());
+		assertEquals(result2, pool.getMajorityResult());
+		assertEquals(result2, pool.getResult(0));
+		pool.clear();
+		assertNull(pool.getMajorityResult());
+		assertTrue(pool.isComplete());
+	}
+
+}
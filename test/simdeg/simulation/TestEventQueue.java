@@ -0,0 +1,149 @@
+package simdeg.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test that the event queues poll the events in chronological order and in
+ * the order of insertion for equal dates.
+ */
+public class TestEventQueue {
+
+	private static final int EVENTS = 10000;
+
+	/**
+	 * Event without any behavior (only its date matters to the queues).
+	 */
+	private static class DatedEvent extends Event {
+
+		private DatedEvent(double date, Worker worker) {
+			super(date, worker);
+		}
+
+	}
+
+	@Test
+	public void heapPollFirst() {
+		pollFirst(new HeapEventQueue());
+	}
+
+	@Test
+	public void treePollFirst() {
+		pollFirst(new TreeEventQueue());
+	}
+
+	@Test
+	public void calendarPollFirst() {
+		pollFirst(new CalendarEventQueue());
+	}
+
+	@Test
+	public void heapRemove() {
+		remove(new HeapEventQueue());
+	}
+
+	@Test
+	public void treeRemove() {
+		remove(new TreeEventQueue());
+	}
+
+	@Test
+	public void calendarRemove() {
+		remove(new CalendarEventQueue());
+	}
+
+	@Test
+	public void heapSameOrder() {
+		sameOrder(new HeapEventQueue(), 100);
+	}
+
+	@Test
+	public void calendarSameOrder() {
+		sameOrder(new CalendarEventQueue(), 100);
+	}
+
+	/**
+	 * Tests dates spread over several orders of magnitude, which forces the
+	 * calendar to skip empty years.
+	 */
+	@Test
+	public void calendarSparseSameOrder() {
+		sameOrder(new CalendarEventQueue(), Integer.MAX_VALUE);
+	}
+
+	private static void sameOrder(EventQueue events, int maxDate) {
+		final EventQueue tree = new TreeEventQueue();
+		final Random random = new Random(0L);
+		final Worker worker = new Worker(new SimulationContext());
+		final List<Event> pending = new ArrayList<Event>();
+		for (int i = 0; i < EVENTS; i++) {
+			final int action = random.nextInt(4);
+			if (action < 2) {
+				final Event event = new DatedEvent(random.nextInt(random
+						.nextBoolean() ? 100 : maxDate), worker);
+				events.add(event);
+				tree.add(event);
+				pending.add(event);
+			} else if (action == 2 && !pending.isEmpty()) {
+				final Event event = pending.remove(random.nextInt(pending
+						.size()));
+				assertEquals(tree.remove(event), events.remove(event));
+			} else {
+				final Event event = events.pollFirst();
+				assertSame(tree.pollFirst(), event);
+				pending.remove(event);
+			}
+			assertEquals(tree.size(), events.size());
+		}
+		while (!tree.isEmpty())
+			assertSame(tree.pollFirst(), events.pollFirst());
+		assertTrue(events.isEmpty());
+	}
+
+	private static void pollFirst(EventQueue events) {
+		final Random random = new Random(1L);
+		final Worker worker = new Worker(new SimulationContext());
+		for (int i = 0; i < EVENTS; i++)
+			events.add(new DatedEvent(random.nextInt(EVENTS / 10), worker));
+		assertEquals(EVENTS, events.size());
+		Event previous = events.pollFirst();
+		while (!events.isEmpty()) {
+			final Event event = events.pollFirst();
+			assertTrue("Events are not polled chronologically", previous
+					.getDate() <= event.getDate());
+			if (previous.getDate() == event.getDate())
+				assertTrue("Ties are not broken by insertion order", previous
+						.getSequence() < event.getSequence());
+			previous = event;
+		}
+		assertNull(events.pollFirst());
+	}
+
+	private static void remove(EventQueue events) {
+		final Worker worker = new Worker(new SimulationContext());
+		final Event first = new DatedEvent(1.0d, worker);
+		final Event second = new DatedEvent(2.0d, worker);
+		final Event third = new DatedEvent(3.0d, worker);
+		events.add(third);
+		events.add(second);
+		events.add(first);
+		assertTrue(events.remove(second));
+		assertFalse(events.remove(second));
+		assertSame(first, events.pollFirst());
+		assertSame(third, events.pollFirst());
+		assertTrue(events.isEmpty());
+		events.add(second);
+		events.clear();
+		assertTrue(events.isEmpty());
+	}
+
+}
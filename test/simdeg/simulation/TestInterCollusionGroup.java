@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -20,16 +21,20 @@ public class TestInterCollusionGroup {
 
 	private final static double EPSILON = 1E-6d;
 
+	private final static SimulationContext context = new SimulationContext();
+
 	private static CollusionGroup buildCollusionGroup(double probability) {
-		CollusionGroup collusionGroup = new CollusionGroup(probability);
-		collusionGroup.add(new Worker());
-		collusionGroup.add(new Worker());
+		CollusionGroup collusionGroup = new CollusionGroup(
+				context, probability);
+		collusionGroup.add(new Worker(context));
+		collusionGroup.add(new Worker(context));
 		return collusionGroup;
 	}
 
 	@Test
 	public void oneInterCollusionGroup() {
-		InterCollusionGroup interCollusionGroup = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup.add(buildCollusionGroup(0.2d));
 		interCollusionGroup.add(buildCollusionGroup(0.2d));
 
@@ -45,7 +50,8 @@ public class TestInterCollusionGroup {
 
 	@Test
 	public void getInterCollusionDecision() {
-		InterCollusionGroup interCollusionGroup = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup.add(buildCollusionGroup(0.2d));
 		interCollusionGroup.add(buildCollusionGroup(0.2d));
 
@@ -56,14 +62,48 @@ public class TestInterCollusionGroup {
 		interCollusionGroup.getResult(new Job(1.0d));
 	}
 
+	/**
+	 * Builds an inter-collusion group and its collusion groups in a new
+	 * context.
+	 */
+	private static InterCollusionGroup buildInterCollusionGroup() {
+		final SimulationContext context = new SimulationContext();
+		final InterCollusionGroup interCollusionGroup = new InterCollusionGroup(
+				context, 0.5d);
+		for (int i = 0; i < 2; i++) {
+			final CollusionGroup collusionGroup = new CollusionGroup(context,
+					0.2d);
+			collusionGroup.add(new Worker(context));
+			collusionGroup.add(new Worker(context));
+			interCollusionGroup.add(collusionGroup);
+		}
+		new InterCollusionDecisionTree(Collections
+				.singleton(interCollusionGroup));
+		return interCollusionGroup;
+	}
+
+	@Test
+	public void decisionIndependentOfOrder() {
+		final InterCollusionGroup forward = buildInterCollusionGroup();
+		final InterCollusionGroup backward = buildInterCollusionGroup();
+		final int n = 100;
+		final Result[] forwardResults = new Result[n];
+		for (int i = 0; i < n; i++)
+			forwardResults[i] = forward.getResult(new Job(1.0d, i));
+		for (int i = n - 1; i >= 0; i--)
+			assertEquals(forwardResults[i] == null, backward.getResult(new Job(
+					1.0d, i)) == null);
+	}
+
 	@Test(expected = OutOfRangeException.class)
 	public void incorrectCollusionGroupException() {
-		CollusionGroup collusionGroup1 = new CollusionGroup(0.2d);
-		collusionGroup1.add(new Worker());
-		CollusionGroup collusionGroup2 = new CollusionGroup(0.2d);
-		collusionGroup2.add(new Worker());
+		CollusionGroup collusionGroup1 = new CollusionGroup(context, 0.2d);
+		collusionGroup1.add(new Worker(context));
+		CollusionGroup collusionGroup2 = new CollusionGroup(context, 0.2d);
+		collusionGroup2.add(new Worker(context));
 
-		InterCollusionGroup interCollusionGroup = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup.add(collusionGroup1);
 		interCollusionGroup.add(collusionGroup2);
 
@@ -74,7 +114,8 @@ public class TestInterCollusionGroup {
 
 	@Test(expected = OutOfRangeException.class)
 	public void incorrectInterCollusionGroupException() {
-		InterCollusionGroup interCollusionGroup = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup.add(buildCollusionGroup(0.2d));
 
 		Set<InterCollusionGroup> interCollusionGroups = new HashSet<InterCollusionGroup>();
@@ -84,7 +125,8 @@ public class TestInterCollusionGroup {
 
 	@Test(expected = NullPointerException.class)
 	public void noDecisionTreeException() {
-		InterCollusionGroup interCollusionGroup = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup.add(buildCollusionGroup(0.2d));
 		interCollusionGroup.add(buildCollusionGroup(0.2d));
 
@@ -93,11 +135,13 @@ public class TestInterCollusionGroup {
 
 	@Test
 	public void twoIndependentInterCollusionGroups() {
-		InterCollusionGroup interCollusionGroup1 = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup1 = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup1.add(buildCollusionGroup(0.2d));
 		interCollusionGroup1.add(buildCollusionGroup(0.2d));
 
-		InterCollusionGroup interCollusionGroup2 = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup2 = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup2.add(buildCollusionGroup(0.2d));
 		interCollusionGroup2.add(buildCollusionGroup(0.2d));
 
@@ -119,11 +163,13 @@ public class TestInterCollusionGroup {
 	public void twoOverlappingInterCollusionGroups() {
 		CollusionGroup overlappingGroup = buildCollusionGroup(0.0d);
 
-		InterCollusionGroup interCollusionGroup1 = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup1 = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup1.add(buildCollusionGroup(0.2d));
 		interCollusionGroup1.add(overlappingGroup);
 
-		InterCollusionGroup interCollusionGroup2 = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup2 = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup2.add(buildCollusionGroup(0.2d));
 		interCollusionGroup2.add(overlappingGroup);
 
@@ -145,11 +191,13 @@ public class TestInterCollusionGroup {
 	public void twoOverlappingInterCollusionGroupsException() {
 		CollusionGroup overlappingGroup = buildCollusionGroup(0.1d);
 
-		InterCollusionGroup interCollusionGroup1 = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup1 = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup1.add(buildCollusionGroup(0.2d));
 		interCollusionGroup1.add(overlappingGroup);
 
-		InterCollusionGroup interCollusionGroup2 = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup2 = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup2.add(buildCollusionGroup(0.2d));
 		interCollusionGroup2.add(overlappingGroup);
 
@@ -164,16 +212,18 @@ public class TestInterCollusionGroup {
 		CollusionGroup overlappingGroup1 = buildCollusionGroup(0.25d);
 		CollusionGroup overlappingGroup2 = buildCollusionGroup(0.25d);
 
-		InterCollusionGroup interCollusionGroup1 = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup1 = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup1.add(buildCollusionGroup(0.5d));
 		interCollusionGroup1.add(overlappingGroup1);
 
-		InterCollusionGroup interCollusionGroup2 = new InterCollusionGroup(
+		InterCollusionGroup interCollusionGroup2 = new InterCollusionGroup(context,
 				0.25d);
 		interCollusionGroup2.add(overlappingGroup1);
 		interCollusionGroup2.add(overlappingGroup2);
 
-		InterCollusionGroup interCollusionGroup3 = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup3 = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup3.add(overlappingGroup2);
 		interCollusionGroup3.add(buildCollusionGroup(0.5d));
 
@@ -200,16 +250,18 @@ public class TestInterCollusionGroup {
 		CollusionGroup overlappingGroup1 = buildCollusionGroup(0.0d);
 		CollusionGroup overlappingGroup2 = buildCollusionGroup(0.0d);
 
-		InterCollusionGroup interCollusionGroup1 = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup1 = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup1.add(buildCollusionGroup(0.0d));
 		interCollusionGroup1.add(overlappingGroup1);
 
-		InterCollusionGroup interCollusionGroup2 = new InterCollusionGroup(
+		InterCollusionGroup interCollusionGroup2 = new InterCollusionGroup(context,
 				0.26d);
 		interCollusionGroup2.add(overlappingGroup1);
 		interCollusionGroup2.add(overlappingGroup2);
 
-		InterCollusionGroup interCollusionGroup3 = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup3 = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup3.add(overlappingGroup2);
 		interCollusionGroup3.add(buildCollusionGroup(0.0d));
 
@@ -225,16 +277,18 @@ public class TestInterCollusionGroup {
 		CollusionGroup overlappingGroup1 = buildCollusionGroup(0.25d);
 		CollusionGroup overlappingGroup2 = buildCollusionGroup(0.25d);
 
-		InterCollusionGroup interCollusionGroup1 = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup1 = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup1.add(buildCollusionGroup(0.5d));
 		interCollusionGroup1.add(overlappingGroup1);
 
-		InterCollusionGroup interCollusionGroup2 = new InterCollusionGroup(
+		InterCollusionGroup interCollusionGroup2 = new InterCollusionGroup(context,
 				0.25d);
 		interCollusionGroup2.add(overlappingGroup1);
 		interCollusionGroup2.add(overlappingGroup2);
 
-		InterCollusionGroup interCollusionGroup3 = new InterCollusionGroup(0.5d);
+		InterCollusionGroup interCollusionGroup3 = new InterCollusionGroup(
+				context, 0.5d);
 		interCollusionGroup3.add(overlappingGroup2);
 		interCollusionGroup3.add(buildCollusionGroup(0.5d));
 
@@ -8,15 +8,19 @@ import static org.junit.Assert.*;
  */
 public class TestResult {
 
+    private static final SimulationContext context = new SimulationContext();
+
     private static CollusionGroup buildCollusionGroup(double probability) {
-        CollusionGroup collusionGroup = new CollusionGroup(probability);
-        collusionGroup.add(new Worker());
-        collusionGroup.add(new Worker());
+        CollusionGroup collusionGroup = new CollusionGroup(
+                context, probability);
+        collusionGroup.add(new Worker(context));
+        collusionGroup.add(new Worker(context));
         return collusionGroup;
     }
 
     private static InterCollusionGroup buildInterCollusionGroup(double probability) {
-        InterCollusionGroup interCollusionGroup = new InterCollusionGroup(probability);
+        InterCollusionGroup interCollusionGroup = new InterCollusionGroup(
+                context, probability);
         interCollusionGroup.add(buildCollusionGroup(0.0d));
         interCollusionGroup.add(buildCollusionGroup(0.0d));
         return interCollusionGroup;
@@ -24,17 +28,17 @@ public class TestResult {
 
     @Test
     public void correctResult() {
-        Result result1 = Result.getCorrectResult();
-        Result result2 = Result.getCorrectResult();
+        Result result1 = context.getCorrectResult();
+        Result result2 = context.getCorrectResult();
         assertTrue("All correct results are equals", result1.equals(result1));
         assertTrue("All correct results are equals", result1.equals(result2));
     }
 
     @Test
     public void failedResult() {
-        Result result1 = Result.getFailedResult();
-        Result result2 = Result.getFailedResult();
-        Result result3 = Result.getCorrectResult();
+        Result result1 = context.getFailedResult();
+        Result result2 = context.getFailedResult();
+        Result result3 = context.getCorrectResult();
         assertFalse("Failed results are unique", result1.equals(result2));
         assertFalse("Failed results are unique", result1.equals(result3));
     }
@@ -42,9 +46,9 @@ public class TestResult {
     @Test
     public void colludedResult() {
         CollusionGroup group = buildCollusionGroup(0.1d);
-        Result result1 = Result.getColludedResult(group);
-        Result result2 = Result.getColludedResult(group);
-        Result result3 = Result.getColludedResult(buildCollusionGroup(0.1d));
+        Result result1 = context.getColludedResult(group);
+        Result result2 = context.getColludedResult(group);
+        Result result3 = context.getColludedResult(buildCollusionGroup(0.1d));
         assertTrue("Colluding results are equals", result1.equals(result2));
         assertFalse("Distinct colluding results are not equal", result1.equals(result3));
     }
@@ -52,9 +56,9 @@ public class TestResult {
     @Test
     public void interColludedResult() {
         InterCollusionGroup group = buildInterCollusionGroup(0.5d);
-        Result result1 = Result.getInterColludedResult(group);
-        Result result2 = Result.getInterColludedResult(group);
-        Result result3 = Result.getInterColludedResult(buildInterCollusionGroup(0.5d));
+        Result result1 = context.getInterColludedResult(group);
+        Result result2 = context.getInterColludedResult(group);
+        Result result3 = context.getInterColludedResult(buildInterCollusionGroup(0.5d));
         assertTrue("Colluding results are equals", result1.equals(result2));
         assertFalse("Distinct colluding results are not equal", result1.equals(result3));
     }
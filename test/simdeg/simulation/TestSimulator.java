@@ -1,13 +1,25 @@
 package simdeg.simulation;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -28,6 +40,12 @@ public class TestSimulator {
 
 	private static final String WORKERS_SPEED_FILE = "test.workersSpeedFile";
 
+	private static final String SETI_TRACE_FILE = "test.event_trace.tab";
+
+	private static final String OUTPUT_FILE = "test.outputFile";
+
+	private static final String REPUTATION_FILE = "test.reputationFile";
+
 	private static final int BIGNUM = 100;
 
 	@BeforeClass
@@ -54,8 +72,24 @@ public class TestSimulator {
 		jobsTraceFile.delete();
 		final File availabilityTraceFile = new File(AVAILABILITY_TRACE_FILE);
 		availabilityTraceFile.delete();
+		final File availabilityTraceIndex = new File(AVAILABILITY_TRACE_FILE
+				+ ".index");
+		availabilityTraceIndex.delete();
+		for (String file : new String[] { JOBS_TRACE_FILE,
+				AVAILABILITY_TRACE_FILE, WORKERS_SPEED_FILE, SETI_TRACE_FILE })
+			new File(file + ".bin").delete();
+		new File(SETI_TRACE_FILE).delete();
+		new File(OUTPUT_FILE + ".points").delete();
+		for (int i = 0; i < 4; i++) {
+			new File(OUTPUT_FILE + "." + i).delete();
+			new File(REPUTATION_FILE + "." + i).delete();
+		}
 		final File workersSpeedFile = new File(WORKERS_SPEED_FILE);
 		workersSpeedFile.delete();
+		final File outputFile = new File(OUTPUT_FILE);
+		outputFile.delete();
+		final File reputationFile = new File(REPUTATION_FILE);
+		reputationFile.delete();
 	}
 
 	private static Properties getInputProperties(int jobs, int workers,
@@ -109,6 +143,8 @@ public class TestSimulator {
 	private static Properties prepareInputProperties(int jobs, int workers,
 			boolean adversity) {
 		final Properties result = new Properties();
+		result.setProperty("platformSeed", "0");
+		result.setProperty("reliabilitySeed", "0");
 		result.setProperty("scheduler", "BOINCScheduler");
 		result.setProperty("resultCertificator", "BOINCResultCertificator");
 		result.setProperty("reputationSystem", "null");
@@ -117,6 +153,8 @@ public class TestSimulator {
 		result.setProperty("availabilityTraceFile", AVAILABILITY_TRACE_FILE);
 		result.setProperty("workersNumber", "" + workers);
 		result.setProperty("workersSpeedFile", WORKERS_SPEED_FILE);
+		result.setProperty("outputFile", OUTPUT_FILE);
+		result.setProperty("reputationFile", REPUTATION_FILE);
 		if (!adversity) {
 			result.setProperty("reliabilityFraction", "1");
 			result.setProperty("reliabilityProbability", "1");
@@ -196,4 +234,166 @@ public class TestSimulator {
 		simulator.run();
 	}
 
+	/**
+	 * Tests that cancelled events are ignored when the cancellation is lazy
+	 * and removed otherwise.
+	 */
+	@Test
+	public void oneWorkerContinuousTimeoutCancellation() throws IOException {
+		final Properties properties = getInputProperties(BIGNUM, 1, true, false);
+		final Simulator lazySimulator = new Simulator(properties);
+		lazySimulator.run();
+		assertTrue(lazySimulator.getDiscardedEvents() > 0L);
+		properties.setProperty("lazyCancellation", "false");
+		final Simulator eagerSimulator = new Simulator(properties);
+		eagerSimulator.run();
+		assertEquals(0L, eagerSimulator.getDiscardedEvents());
+	}
+
+	/**
+	 * Tests the construction of the platform with the index of the trace.
+	 */
+	@Test
+	public void severalWorkersDiscontinuousTraceIndex() throws IOException {
+		final Properties properties = getInputProperties(10, 3, false, false);
+		properties.setProperty("traceIndex", "true");
+		final Simulator simulator = new Simulator(properties);
+		simulator.run();
+	}
+
+	/**
+	 * Tests that the traces converted in the binary format are detected and
+	 * read.
+	 */
+	@Test
+	public void severalWorkersDiscontinuousBinaryTraces() throws IOException {
+		final Properties properties = getInputProperties(10, 3, false, false);
+		TraceConverter.main(new String[] { "availability",
+				AVAILABILITY_TRACE_FILE, AVAILABILITY_TRACE_FILE + ".bin",
+				"-delta", "-compress" });
+		TraceConverter.main(new String[] { "speeds", WORKERS_SPEED_FILE,
+				WORKERS_SPEED_FILE + ".bin", "-delta" });
+		TraceConverter.main(new String[] { "jobs", JOBS_TRACE_FILE,
+				JOBS_TRACE_FILE + ".bin" });
+		properties.setProperty("availabilityTraceFile",
+				AVAILABILITY_TRACE_FILE + ".bin");
+		properties.setProperty("workersSpeedFile", WORKERS_SPEED_FILE
+				+ ".bin");
+		properties.setProperty("jobsTraceFile", JOBS_TRACE_FILE + ".bin");
+		final Simulator simulator = new Simulator(properties);
+		simulator.run();
+	}
+
+	/**
+	 * Tests that the SETI@Home trace is still detected once converted in the
+	 * binary format.
+	 */
+	@Test
+	public void setiTraceBinary() throws IOException {
+		final FileWriter output = new FileWriter(SETI_TRACE_FILE);
+		output.write("0 0 0 " + BIGNUM + '\n');
+		output.close();
+		TraceConverter.main(new String[] { "availability", SETI_TRACE_FILE,
+				SETI_TRACE_FILE + ".bin" });
+		assertTrue(Simulator.isSetiTrace(new File(SETI_TRACE_FILE)));
+		assertTrue(Simulator.isSetiTrace(new File(SETI_TRACE_FILE + ".bin")));
+		generateAvailabilityTraceFile(1, true);
+		TraceConverter.main(new String[] { "availability",
+				AVAILABILITY_TRACE_FILE, AVAILABILITY_TRACE_FILE + ".bin" });
+		assertFalse(Simulator.isSetiTrace(new File(AVAILABILITY_TRACE_FILE
+				+ ".bin")));
+	}
+
+	/**
+	 * Tests that the outputs written asynchronously and compressed are the
+	 * same.
+	 */
+	@Test
+	public void severalWorkersDiscontinuousAdversityCompressedOutput()
+			throws IOException {
+		final Properties properties = getInputProperties(10, 20, false, true);
+		new Simulator(properties).run();
+		final List<String> expected = readResults(OUTPUT_FILE);
+		properties.setProperty("outputCompression", "true");
+		properties.setProperty("outputAsync", "true");
+		properties.setProperty("outputFlushInterval", "3");
+		new Simulator(properties).run();
+		assertEquals(expected, readResults(new BufferedReader(
+				new InputStreamReader(new GZIPInputStream(new FileInputStream(
+						OUTPUT_FILE))))));
+	}
+
+	/**
+	 * Tests that a simulation gives the same outputs whatever was simulated
+	 * before in the JVM.
+	 */
+	@Test
+	public void severalWorkersDiscontinuousAdversityReproducible()
+			throws IOException {
+		final Properties properties = getInputProperties(10, 20, false, true);
+		new Simulator(properties).run();
+		final List<String> first = readResults(OUTPUT_FILE);
+		new Simulator(properties).run();
+		assertEquals(first, readResults(OUTPUT_FILE));
+	}
+
+	/**
+	 * Tests that the outputs of a sweep do not depend on the number of
+	 * threads.
+	 */
+	@Test
+	public void severalWorkersDiscontinuousAdversitySweep() throws IOException {
+		final Properties properties = getInputProperties(10, 20, false, true);
+		final SweepRunner runner = new SweepRunner(properties, Arrays.asList(
+				"platformSeed=0|1", "reliabilityFraction=0.6|0.8"));
+		assertEquals(0, runner.run(1));
+		final List<List<String>> sequential = new ArrayList<List<String>>();
+		for (int i = 0; i < 4; i++)
+			sequential.add(readResults(OUTPUT_FILE + "." + i));
+		assertEquals(0, runner.run(4));
+		for (int i = 0; i < 4; i++)
+			assertEquals(sequential.get(i), readResults(OUTPUT_FILE + "." + i));
+	}
+
+	/**
+	 * Reads the certified results and the number of results per job of an
+	 * output file (without the elapsed time).
+	 */
+	private static List<String> readResults(String file) throws IOException {
+		return readResults(new BufferedReader(new FileReader(file)));
+	}
+
+	private static List<String> readResults(BufferedReader input)
+			throws IOException {
+		final List<String> result = new ArrayList<String>();
+		String line;
+		while ((line = input.readLine()) != null)
+			result.add(line.substring(0, line.lastIndexOf(' ')));
+		input.close();
+		return result;
+	}
+
+	/**
+	 * Tests the red-black tree based structure for storing events.
+	 */
+	@Test
+	public void severalWorkersDiscontinuousTreeEventQueue() throws IOException {
+		final Properties properties = getInputProperties(10, 3, false, false);
+		properties.setProperty("eventQueue", "TreeEventQueue");
+		final Simulator simulator = new Simulator(properties);
+		simulator.run();
+	}
+
+	/**
+	 * Tests the calendar queue based structure for storing events.
+	 */
+	@Test
+	public void severalWorkersDiscontinuousCalendarEventQueue()
+			throws IOException {
+		final Properties properties = getInputProperties(10, 3, false, false);
+		properties.setProperty("eventQueue", "CalendarEventQueue");
+		final Simulator simulator = new Simulator(properties);
+		simulator.run();
+	}
+
 }
\ No newline at end of file
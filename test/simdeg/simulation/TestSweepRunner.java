@@ -0,0 +1,50 @@
+package simdeg.simulation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+
+/**
+ * Test that the grid of parameters of a sweep is correctly built.
+ */
+public class TestSweepRunner {
+
+	@Test
+	public void parseValues() {
+		assertEquals(Arrays.asList("0.5", "0.6", "0.7"), SweepRunner
+				.parseValues("0.5:0.7:0.1"));
+		assertEquals(Arrays.asList("[0.1]", "[0.2,0.1]"), SweepRunner
+				.parseValues("[0.1]|[0.2,0.1]"));
+		assertEquals(Arrays.asList("([0,1];[1,2])"), SweepRunner
+				.parseValues("([0,1];[1,2])"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parseValuesException() {
+		SweepRunner.parseValues("1:2:0");
+	}
+
+	@Test
+	public void getPoints() {
+		final Properties base = new Properties();
+		base.setProperty("outputFile", "out");
+		base.setProperty("reputationFile", "rep");
+		base.setProperty("platformSeed", "0");
+		final SweepRunner runner = new SweepRunner(base, Arrays.asList(
+				"reliabilityFraction=0.5|1", "platformSeed=1:3:1"));
+		final List<Properties> points = runner.getPoints();
+		assertEquals(6, points.size());
+		assertEquals("0.5", points.get(2).getProperty("reliabilityFraction"));
+		assertEquals("3", points.get(2).getProperty("platformSeed"));
+		assertEquals("1", points.get(3).getProperty("reliabilityFraction"));
+		assertEquals("1", points.get(3).getProperty("platformSeed"));
+		assertEquals("out.4", points.get(4).getProperty("outputFile"));
+		assertEquals("rep.4", points.get(4).getProperty("reputationFile"));
+		assertEquals("0", base.getProperty("platformSeed"));
+	}
+
+}
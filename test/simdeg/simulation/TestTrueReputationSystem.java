@@ -3,6 +3,7 @@ package simdeg.simulation;
 import static org.junit.Assert.assertEquals;
 
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -19,6 +20,8 @@ public class TestTrueReputationSystem {
 
 	private final static double EPSILON = 1E-6d;
 
+	private static SimulationContext context;
+
 	private static Worker[] workers;
 
 	private static CollusionGroup collusionGroup1;
@@ -34,40 +37,41 @@ public class TestTrueReputationSystem {
 
 	@BeforeClass
 	public static void buildCollusionConfiguration() {
+		context = new SimulationContext();
 		/* Workers creation */
 		workers = new Worker[10];
 		for (int i = 0; i < workers.length; i++) {
-			workers[i] = new Worker();
+			workers[i] = new Worker(context);
 			workers[0].setReliability(0.9d);
 		}
 
 		/* CollusionGroup creation */
-		collusionGroup1 = new CollusionGroup(0.45d);
+		collusionGroup1 = new CollusionGroup(context, 0.45d);
 		collusionGroup1.add(workers[0]);
 		collusionGroup1.add(workers[1]);
-		collusionGroup2 = new CollusionGroup(0.15d);
+		collusionGroup2 = new CollusionGroup(context, 0.15d);
 		collusionGroup2.add(workers[2]);
 		collusionGroup2.add(workers[3]);
-		collusionGroup3 = new CollusionGroup(0.24d);
+		collusionGroup3 = new CollusionGroup(context, 0.24d);
 		collusionGroup3.add(workers[4]);
 		collusionGroup3.add(workers[5]);
-		collusionGroup4 = new CollusionGroup(0.2d);
+		collusionGroup4 = new CollusionGroup(context, 0.2d);
 		collusionGroup4.add(workers[6]);
 		collusionGroup4.add(workers[7]);
 
 		/* InterCollusionGroup creation */
-		interCollusionGroup1 = new InterCollusionGroup(0.1d);
+		interCollusionGroup1 = new InterCollusionGroup(context, 0.1d);
 		interCollusionGroup1.add(collusionGroup1);
 		interCollusionGroup1.add(collusionGroup2);
-		interCollusionGroup2 = new InterCollusionGroup(0.2d);
+		interCollusionGroup2 = new InterCollusionGroup(context, 0.2d);
 		interCollusionGroup2.add(collusionGroup3);
 		interCollusionGroup2.add(collusionGroup4);
-		interCollusionGroup3 = new InterCollusionGroup(0.4d);
+		interCollusionGroup3 = new InterCollusionGroup(context, 0.4d);
 		interCollusionGroup3.add(collusionGroup2);
 		interCollusionGroup3.add(collusionGroup3);
 
 		/* Decision tree creation */
-		Set<InterCollusionGroup> interCollusionGroups = new HashSet<InterCollusionGroup>();
+		Set<InterCollusionGroup> interCollusionGroups = new LinkedHashSet<InterCollusionGroup>();
 		interCollusionGroups.add(interCollusionGroup1);
 		interCollusionGroups.add(interCollusionGroup2);
 		interCollusionGroups.add(interCollusionGroup3);
@@ -93,13 +97,13 @@ public class TestTrueReputationSystem {
 		/* All groups of collusion collude */
 		while (true) {
 			final Job job = new Job(0.0d);
-			if (collusionGroup1.getResult(job) == Result
+			if (collusionGroup1.getResult(job) == context
 					.getColludedResult(collusionGroup1)
-					&& collusionGroup2.getResult(job) == Result
+					&& collusionGroup2.getResult(job) == context
 							.getColludedResult(collusionGroup2)
-					&& collusionGroup3.getResult(job) == Result
+					&& collusionGroup3.getResult(job) == context
 							.getColludedResult(collusionGroup3)
-					&& collusionGroup4.getResult(job) == Result
+					&& collusionGroup4.getResult(job) == context
 							.getColludedResult(collusionGroup4))
 				break;
 		}
@@ -115,9 +119,9 @@ public class TestTrueReputationSystem {
 		/* The first group of collusion colludes but the first worker fails */
 		while (true) {
 			final Job job = new Job(0.0d);
-			if (collusionGroup1.getResult(job) == Result
+			if (collusionGroup1.getResult(job) == context
 					.getColludedResult(collusionGroup1)
-					&& workers[0].getResult(job) != Result
+					&& workers[0].getResult(job) != context
 							.getColludedResult(collusionGroup1))
 				break;
 		}
@@ -0,0 +1,164 @@
+package simdeg.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test that the batched output writes exactly the given bytes whatever the
+ * mode, and that flushing makes them visible in the file.
+ */
+public class TestBatchOutputStream {
+
+	private static final String OUTPUT_FILE = "test.batchOutput";
+
+	@After
+	public void clean() {
+		new File(OUTPUT_FILE).delete();
+	}
+
+	private static byte[] read(boolean compressed) throws IOException {
+		InputStream input = new FileInputStream(OUTPUT_FILE);
+		if (compressed)
+			input = new GZIPInputStream(input);
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[4096];
+		int count;
+		while ((count = input.read(buffer)) != -1)
+			result.write(buffer, 0, count);
+		input.close();
+		return result.toByteArray();
+	}
+
+	private static void roundTrip(boolean compressed, boolean async)
+			throws IOException {
+		final byte[] expected = new byte[300000];
+		for (int i = 0; i < expected.length; i++)
+			expected[i] = (byte) (i * 31 + i / 7);
+		final BatchOutputStream output = new BatchOutputStream(new File(
+				OUTPUT_FILE), compressed, async);
+		int i = 0;
+		while (i < expected.length) {
+			if (i % 3 == 0)
+				output.write(expected[i++]);
+			else {
+				final int length = Math.min(expected.length - i, i % 70001);
+				output.write(expected, i, length);
+				i += length;
+			}
+			if (i % 11 == 0)
+				output.flush();
+		}
+		output.close();
+		assertArrayEquals(expected, read(compressed));
+	}
+
+	@Test
+	public void synchronous() throws IOException {
+		roundTrip(false, false);
+	}
+
+	@Test
+	public void asynchronous() throws IOException {
+		roundTrip(false, true);
+	}
+
+	@Test
+	public void compressed() throws IOException {
+		roundTrip(true, false);
+	}
+
+	@Test
+	public void compressedAsynchronous() throws IOException {
+		roundTrip(true, true);
+	}
+
+	@Test
+	public void flush() throws IOException {
+		final BatchOutputStream output = new BatchOutputStream(new File(
+				OUTPUT_FILE), false, false);
+		output.write(new byte[] { 1, 2, 3 });
+		assertEquals(0, read(false).length);
+		output.flush();
+		assertEquals(3, read(false).length);
+		output.close();
+	}
+
+	/**
+	 * Output failing at each write, which records whether it was closed.
+	 */
+	private static class FailingOutputStream extends OutputStream {
+		private boolean closed = false;
+
+		@Override
+		public void write(int b) throws IOException {
+			throw new IOException("Disk full");
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	/**
+	 * Tests that a failure of the writing thread is raised to the producer
+	 * instead of blocking it, and that the file is still closed.
+	 */
+	@Test(timeout = 10000)
+	public void writerFailure() throws IOException {
+		final FailingOutputStream failing = new FailingOutputStream();
+		final BatchOutputStream output = new BatchOutputStream(failing, false,
+				true, OUTPUT_FILE);
+		final byte[] bytes = new byte[4096];
+		try {
+			while (true)
+				output.write(bytes);
+		} catch (IOException e) {
+			assertEquals("Disk full", e.getMessage());
+		}
+		try {
+			output.close();
+			fail();
+		} catch (IOException e) {
+			assertEquals("Disk full", e.getMessage());
+		}
+		assertTrue(failing.closed);
+	}
+
+	@Test
+	public void synchronousFailure() {
+		final FailingOutputStream failing = new FailingOutputStream();
+		try {
+			final BatchOutputStream output = new BatchOutputStream(failing,
+					false, false, OUTPUT_FILE);
+			output.write(new byte[] { 1, 2, 3 });
+			output.close();
+			fail();
+		} catch (IOException e) {
+			assertEquals("Disk full", e.getMessage());
+		}
+		assertTrue(failing.closed);
+	}
+
+	@Test(expected = IOException.class)
+	public void closedException() throws IOException {
+		final BatchOutputStream output = new BatchOutputStream(new File(
+				OUTPUT_FILE), false, true);
+		output.close();
+		output.flush();
+	}
+
+}
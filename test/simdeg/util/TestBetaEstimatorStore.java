@@ -0,0 +1,102 @@
+package simdeg.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestBetaEstimatorStore {
+
+	private EstimatorStore store;
+
+	@Before
+	public void createStore() {
+		store = new BetaEstimator().createStore();
+	}
+
+	@Test
+	public void createStoreKind() {
+		assertTrue(store instanceof BetaEstimatorStore);
+		/* Subclasses may hold more information than the parameters */
+		assertFalse(new BTS().createStore() instanceof BetaEstimatorStore);
+	}
+
+	@Test
+	public void views() {
+		final int id1 = store.add();
+		final int id2 = store.add();
+		final Estimator view = store.get(id1);
+		view.setSample(1.0d);
+		view.setSample(0.0d);
+		store.get(id1).setSample(1.0d);
+		assertEquals(3.0d, view.getSampleCount(), 0.0d);
+		assertEquals(3.0d, store.getSampleCount(id1), 0.0d);
+		assertEquals(1.0d, store.getSampleCount(id1, 0.0d), 0.0d);
+		assertEquals(0.0d, store.getSampleCount(id2), 0.0d);
+		/* A view behaves as a standalone estimator */
+		final Estimator estimator = new BetaEstimator();
+		estimator.setSample(1.0d);
+		estimator.setSample(0.0d);
+		estimator.setSample(1.0d);
+		assertEquals(estimator.getMean(), view.getMean(), 0.0d);
+		assertEquals(estimator.getError(), store.getError(id1), 0.0d);
+		assertEquals(estimator.toString(), view.toString());
+		assertEquals(estimator.toString(), view.clone().toString());
+	}
+
+	@Test
+	public void setSample() {
+		final int id = store.add();
+		final Estimator view = store.get(id);
+		store.setSample(id, 1.0d);
+		store.setSample(id, 0.0d);
+		assertEquals(2.0d, view.getSampleCount(), 0.0d);
+		assertEquals(1.0d, store.getSampleCount(id, 1.0d), 0.0d);
+	}
+
+	@Test
+	public void set() {
+		final int id = store.add();
+		final Estimator estimator = new BetaEstimator();
+		estimator.setSample(1.0d);
+		store.set(id, estimator);
+		/* The parameters are copied */
+		estimator.setSample(1.0d);
+		assertEquals(1.0d, store.getSampleCount(id), 0.0d);
+		store.set(id, Estimator.merge(estimator, store.get(id)));
+		assertEquals(2.0d, store.getSampleCount(id), 0.0d);
+	}
+
+	@Test
+	public void changeRange() {
+		final int id = store.add();
+		store.setSample(id, 1.0d);
+		store.setSample(id, 1.0d);
+		store.setSample(id, 0.0d);
+		/* Range changes are done on clones and never reach the store */
+		RV.multiply(store.get(id), -1.0d);
+		try {
+			store.get(id).multiply(-1.0d);
+			fail("Range of a stored estimator changed");
+		} catch (UnsupportedOperationException e) {
+		}
+		assertEquals(2.0d, store.getSampleCount(id, 1.0d), 0.0d);
+		assertEquals(1.0d, store.getSampleCount(id, 0.0d), 0.0d);
+	}
+
+	@Test
+	public void reuseIdentifiers() {
+		final int id1 = store.add();
+		final int id2 = store.add();
+		store.get(id1).setSample(0.0d);
+		store.remove(id1);
+		assertEquals(id1, store.add());
+		assertEquals(0.0d, store.getSampleCount(id1), 0.0d);
+		for (int i = 0; i < 100; i++)
+			assertTrue(store.add() > id2);
+	}
+
+}
@@ -0,0 +1,141 @@
+package simdeg.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test that the traces converted in the binary format contain exactly the
+ * same records than the text traces, whatever the encoding.
+ */
+public class TestBinaryTrace {
+
+	private static final String TEXT_FILE = "test.textTrace";
+
+	private static final String BINARY_FILE = "test.binaryTrace";
+
+	private static final String CONTENT = "# header\n3 0.5 1e3 x\n"
+			+ "7 1.25 -2 y\n3 0.1 NULL z\n-4 12345678.9 3.0 w\n";
+
+	@After
+	public void clean() {
+		new File(TEXT_FILE).delete();
+		new File(BINARY_FILE).delete();
+	}
+
+	private static File write(String content) throws IOException {
+		final FileWriter output = new FileWriter(TEXT_FILE);
+		output.write(content);
+		output.close();
+		return new File(TEXT_FILE);
+	}
+
+	private static void convert(boolean delta, boolean compressed)
+			throws IOException {
+		final Trace text = Trace.open(write(CONTENT), 1, 0, 1, 2);
+		BinaryTrace.convert(text, 2, new File(BINARY_FILE), delta,
+				compressed);
+		text.close();
+		assertFalse(Trace.isBinary(new File(TEXT_FILE)));
+		assertTrue(Trace.isBinary(new File(BINARY_FILE)));
+
+		final Trace expected = Trace.open(new File(TEXT_FILE), 1, 0, 1, 2);
+		final Trace binary = Trace.open(new File(BINARY_FILE), 1, 0, 1, 2);
+		int records = 0;
+		while (expected.next()) {
+			assertTrue(binary.next());
+			assertEquals(expected.getId(), binary.getId());
+			assertEquals(expected.getValue(0), binary.getValue(0), 0.0d);
+			if (records == 2)
+				assertTrue(Double.isNaN(binary.getValue(1)));
+			else
+				assertEquals(expected.getValue(1), binary.getValue(1), 0.0d);
+			records++;
+		}
+		assertFalse(binary.next());
+		assertEquals(4, records);
+		expected.close();
+		binary.close();
+	}
+
+	@Test
+	public void raw() throws IOException {
+		convert(false, false);
+	}
+
+	@Test
+	public void delta() throws IOException {
+		convert(true, false);
+	}
+
+	@Test
+	public void compressed() throws IOException {
+		convert(false, true);
+	}
+
+	@Test
+	public void deltaCompressed() throws IOException {
+		convert(true, true);
+	}
+
+	@Test
+	public void lazyText() throws IOException {
+		final Trace text = Trace.open(write("a 1 b 2.5\nc 2 d 3.5\n"), 0, 1,
+				3);
+		assertTrue(text.next());
+		assertEquals(1, text.getId());
+		assertTrue(text.next());
+		assertEquals(2, text.getId());
+		assertEquals(3.5d, text.getValue(0), 0.0d);
+		assertFalse(text.next());
+		text.close();
+	}
+
+	@Test
+	public void sourceName() throws IOException {
+		final Trace text = Trace.open(write(CONTENT), 1, 0, 1, 2);
+		BinaryTrace.convert(text, TEXT_FILE, 2, new File(BINARY_FILE), true,
+				true);
+		text.close();
+		assertEquals(TEXT_FILE, Trace.getSourceName(new File(BINARY_FILE)));
+		assertEquals(TEXT_FILE, Trace.getSourceName(new File(TEXT_FILE)));
+	}
+
+	/**
+	 * Tests that a file ending in the middle of a record is not read as a
+	 * shorter trace.
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void truncatedException() throws IOException {
+		final Trace text = Trace.open(write(CONTENT), 1, 0, 1, 2);
+		BinaryTrace.convert(text, 2, new File(BINARY_FILE), false, false);
+		text.close();
+		final RandomAccessFile file = new RandomAccessFile(BINARY_FILE, "rw");
+		file.setLength(file.length() - 3);
+		file.close();
+		final Trace binary = Trace.open(new File(BINARY_FILE), 1, 0, 1, 2);
+		try {
+			for (int i = 0; i < 4; i++)
+				binary.next();
+		} finally {
+			binary.close();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void valuesCountException() throws IOException {
+		final Trace text = Trace.open(write(CONTENT), 1, 0, 1, 2);
+		BinaryTrace.convert(text, 2, new File(BINARY_FILE), false, false);
+		text.close();
+		Trace.open(new File(BINARY_FILE), 1, 0, 1);
+	}
+
+}
@@ -0,0 +1,188 @@
+package simdeg.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class TestDoubleLUT {
+
+    private final static double EPSILON = 1E-2d;
+
+    /** Number of calls to the functions */
+    private int calls = 0;
+
+    private final UnaryDoubleLUT.Function square
+        = new UnaryDoubleLUT.Function() {
+            public double compute(double x) {
+                calls++;
+                return x*x;
+            }
+        };
+
+    @Test public void getValue() {
+        final UnaryDoubleLUT values = new UnaryDoubleLUT(square,
+                new double[] {0.0d, 1.0d, EPSILON/10.0d});
+        for (int i=-100; i<200; i++)
+            assertEquals(i/100.0d * i/100.0d, values.getValue(i/100.0d),
+                    EPSILON);
+    }
+
+    @Test public void getValueNearestLower() {
+        final UnaryDoubleLUT values = new UnaryDoubleLUT(square,
+                new double[] {1.0d, 3.0d, 1.0d});
+        assertEquals(1.0d, values.getValue(1.9d), 0.0d);
+        assertEquals(4.0d, values.getValue(2.0d), 0.0d);
+        assertEquals(9.0d, values.getValue(3.5d), 0.0d);
+        /* Out of the range */
+        calls = 0;
+        assertEquals(0.25d, values.getValue(0.5d), 0.0d);
+        assertEquals(16.0d, values.getValue(4.0d), 0.0d);
+        assertEquals(2, calls);
+    }
+
+    @Test public void getValueInterpolated() {
+        final UnaryDoubleLUT values = new UnaryDoubleLUT(square,
+                new double[] {1.0d, 3.0d, 1.0d}, true);
+        assertEquals(2.5d, values.getValue(1.5d), 0.0d);
+        assertEquals(9.0d, values.getValue(3.0d), 0.0d);
+        calls = 0;
+        assertEquals(6.5d, values.getValue(2.5d), 0.0d);
+        assertEquals(0, calls);
+        assertEquals(12.25d, values.getValue(3.5d), 0.0d);
+        assertEquals(1, calls);
+    }
+
+    /**
+     * Each sample is computed once, the first time it is needed.
+     */
+    @Test public void getValueLazy() {
+        calls = 0;
+        final UnaryDoubleLUT values = new UnaryDoubleLUT(square,
+                new double[] {0.0d, 10.0d, 1.0d});
+        assertEquals(0, calls);
+        assertEquals(4.0d, values.getValue(2.0d), 0.0d);
+        assertEquals(4.0d, values.getValue(2.5d), 0.0d);
+        assertEquals(1, calls);
+    }
+
+    /**
+     * Threads sharing a LUT get the computed samples.
+     */
+    @Test public void getValueConcurrent() throws InterruptedException {
+        final TriDoubleLUT values = new TriDoubleLUT(
+                new TriDoubleLUT.Function() {
+                    public double compute(double x, double y, double z) {
+                        return x * 10000.0d + y * 100.0d + z;
+                    }
+                }, new double[] {0.0d, 99.0d, 1.0d},
+                new double[] {0.0d, 99.0d, 1.0d},
+                new double[] {0.0d, 9.0d, 1.0d});
+        final int[] errors = new int[1];
+        final Thread[] threads = new Thread[4];
+        for (int t=0; t<threads.length; t++) {
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int x=0; x<100; x++)
+                        for (int y=0; y<100; y++)
+                            for (int z=0; z<10; z++)
+                                if (values.getValue(x, y, z)
+                                        != x * 10000.0d + y * 100.0d + z)
+                                    synchronized (errors) {
+                                        errors[0]++;
+                                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(0, errors[0]);
+    }
+
+    @Test public void saveLoad() throws IOException {
+        final BiDoubleLUT.Function function = new BiDoubleLUT.Function() {
+            public double compute(double x, double y) {
+                calls++;
+                return x / y;
+            }
+        };
+        final double[] range1 = new double[] {0.0d, 1.0d, 0.1d};
+        final double[] range2 = new double[] {1.0d, 2.0d, 0.25d};
+        final BiDoubleLUT saved = new BiDoubleLUT(function, range1, range2);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        saved.save(out);
+        final BiDoubleLUT loaded = new BiDoubleLUT(function, range1, range2);
+        loaded.load(new ByteArrayInputStream(out.toByteArray()));
+        calls = 0;
+        for (double x=0.0d; x<=1.0d; x+=0.05d)
+            for (double y=1.0d; y<=2.0d; y+=0.05d)
+                assertEquals(saved.getValue(x, y), loaded.getValue(x, y),
+                        0.0d);
+        assertEquals(0, calls);
+    }
+
+    @Test(expected=IOException.class)
+    public void loadException() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new UnaryDoubleLUT(square, new double[] {0.0d, 1.0d, 0.1d}).save(out);
+        new UnaryDoubleLUT(square, new double[] {0.0d, 2.0d, 0.1d}).load(
+                new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    /**
+     * Bilinear and trilinear interpolations are exact for multilinear
+     * functions.
+     */
+    @Test public void getValueMultilinear() {
+        final BiDoubleLUT biValues = new BiDoubleLUT(
+                new BiDoubleLUT.Function() {
+                    public double compute(double x, double y) {
+                        return 3.0d * x * y + x - 2.0d * y;
+                    }
+                }, new double[] {0.0d, 2.0d, 0.5d},
+                new double[] {-1.0d, 1.0d, 0.25d}, true);
+        final TriDoubleLUT triValues = new TriDoubleLUT(
+                new TriDoubleLUT.Function() {
+                    public double compute(double x, double y, double z) {
+                        return x * y * z + y - z;
+                    }
+                }, new double[] {0.0d, 2.0d, 0.5d},
+                new double[] {-1.0d, 1.0d, 0.25d},
+                new double[] {5.0d, 5.0d, 1.0d}, true);
+        for (double x=0.0d; x<=2.0d; x+=0.1d)
+            for (double y=-1.0d; y<=1.0d; y+=0.1d) {
+                assertEquals(3.0d * x * y + x - 2.0d * y,
+                        biValues.getValue(x, y), 1E-12d);
+                assertEquals(x * y * 5.0d + y - 5.0d,
+                        triValues.getValue(x, y, 5.0d), 1E-12d);
+            }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void rangeException() {
+        new UnaryDoubleLUT(square, new double[] {1.0d, 0.0d, 0.1d});
+    }
+
+    /**
+     * Without interpolation, the values are those of the nearest lower
+     * samples.
+     */
+    @Test public void sameAsError() {
+        final TriDoubleLUT values = new TriDoubleLUT(
+                new TriDoubleLUT.Function() {
+                    public double compute(double x, double y, double z) {
+                        return Beta.error(x, y, z);
+                    }
+                }, new double[] {1.0d, 11.0d, 1.0d},
+                new double[] {1.0d, 11.0d, 1.0d},
+                new double[] {0.95d, 0.95d, 1.0d});
+        for (double alpha=1.0d; alpha<=11.0d; alpha+=0.3d)
+            for (double beta=1.0d; beta<=11.0d; beta+=0.7d)
+                assertEquals(Beta.error(Math.floor(alpha), Math.floor(beta),
+                        0.95d), values.getValue(alpha, beta, 0.95d), 0.0d);
+    }
+
+}
@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.HashSet;
 import java.util.NoSuchElementException;
@@ -187,4 +188,73 @@ public class TestDynamicMatrix {
         assertEquals(1, matrix.getLargest().size());
     }
 
+    @Test public void reuseIdentifiers() {
+        matrix.addAll(objects);
+        final Object object1 = objects1.iterator().next();
+        final Object object2 = objects2.iterator().next();
+        Object object3 = object1;
+        for (Object object : objects1)
+            object3 = object;
+        final Estimator estimator = new BTS();
+        matrix.setEstimator(matrix.getSet(object3), matrix.getSet(object2),
+                estimator);
+        /* Merge and split other objects so that their sets are recycled */
+        for (int i=0; i<3; i++) {
+            for (Object object : objects2)
+                if (object != object2)
+                    matrix.merge(matrix.getSet(object1), matrix.getSet(object));
+            for (Object object : objects2)
+                if (object != object2)
+                    matrix.split(matrix.getSet(object1), object);
+        }
+        assertEquals(1, matrix.getSet(object1).size());
+        assertSame(estimator, matrix.getEstimator(matrix.getSet(object2),
+                    matrix.getSet(object3)));
+        /* Sets that left the matrix are not valid anymore */
+        final Set<Object> set = matrix.getSet(object2);
+        matrix.removeAll(objects2);
+        matrix.addAll(objects2);
+        try {
+            matrix.getEstimator(set, matrix.getSet(object3));
+            fail("Removed set still valid");
+        } catch (NoSuchElementException e) {
+        }
+    }
+
+    @Test public void getModifiableEstimator() {
+        matrix.addAll(objects);
+        final Set<Object> set1 = matrix.getSet(objects1.iterator().next());
+        final Set<Object> set2 = matrix.getSet(objects2.iterator().next());
+        final Set<Object> set3 = matrix.getSet(object(objects2, 1));
+        /* Pairs without information share the same estimator */
+        assertSame(matrix.getEstimator(set1, set2),
+                matrix.getEstimator(set1, set3));
+        final long version = matrix.getVersion();
+        final Estimator estimator = matrix.getModifiableEstimator(set1, set2);
+        assertTrue(version < matrix.getVersion());
+        estimator.setSample(1.0d);
+        assertSame(estimator, matrix.getModifiableEstimator(set1, set2));
+        assertSame(estimator, matrix.getEstimator(set2, set1));
+        assertEquals(0.0d, matrix.getEstimator(set1, set3).getSampleCount(),
+                0.0d);
+    }
+
+    @Test(expected=UnsupportedOperationException.class)
+    public void getEstimatorReadOnly() {
+        matrix.addAll(objects);
+        final Set<Object> set1 = matrix.getSet(objects1.iterator().next());
+        final Set<Object> set2 = matrix.getSet(objects2.iterator().next());
+        /* The shared estimator without information cannot be modified */
+        final Estimator estimator = matrix.getEstimator(set1, set2);
+        assertEquals(0.0d, estimator.clone().getSampleCount(), 0.0d);
+        estimator.setSample(1.0d);
+    }
+
+    private static Object object(Set<Object> objects, int index) {
+        for (Object object : objects)
+            if (index-- == 0)
+                return object;
+        throw new NoSuchElementException();
+    }
+
 }
@@ -0,0 +1,62 @@
+package simdeg.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestLongIntMap {
+
+	@Test
+	public void putGet() {
+		final LongIntMap map = new LongIntMap();
+		assertEquals(-1, map.get(0L));
+		map.put(0L, 0);
+		map.put(1L << 40, 40);
+		map.put(0L, 1);
+		assertEquals(2, map.size());
+		assertEquals(1, map.get(0L));
+		assertEquals(40, map.get(1L << 40));
+		assertEquals(-1, map.get(1L));
+		assertEquals(40, map.remove(1L << 40));
+		assertEquals(-1, map.remove(1L << 40));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void putException() {
+		new LongIntMap().put(-1L, 0);
+	}
+
+	/**
+	 * Compares random insertions and removals with a HashMap.
+	 */
+	@Test
+	public void randomOperations() {
+		final LongIntMap map = new LongIntMap();
+		final Map<Long, Integer> reference = new HashMap<Long, Integer>();
+		final Random random = new Random(0L);
+		for (int i = 0; i < 200000; i++) {
+			/* Few distinct keys for many collisions and removals */
+			final long key = random.nextInt(5000);
+			if (random.nextInt(3) == 0) {
+				final Integer value = reference.remove(key);
+				assertEquals(value == null ? -1 : value, map.remove(key));
+			} else {
+				map.put(key, i);
+				reference.put(key, i);
+			}
+		}
+		assertEquals(reference.size(), map.size());
+		for (long key = 0L; key < 5000L; key++)
+			assertEquals(reference.containsKey(key) ? reference.get(key) : -1,
+					map.get(key));
+		/* Removing everything shrinks the table */
+		for (long key = 0L; key < 5000L; key++)
+			map.remove(key);
+		assertEquals(0, map.size());
+	}
+
+}
@@ -0,0 +1,65 @@
+package simdeg.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test that the records kept in memory are the ones of the trace and that
+ * the number of stored values is bounded.
+ */
+public class TestMemoryTrace {
+
+	/**
+	 * Trace of the given number of records (the id is the rank of the record
+	 * and the values are the rank and its opposite).
+	 */
+	private static Trace trace(final int records) {
+		return new Trace() {
+			private int record = -1;
+
+			public boolean next() {
+				return ++record < records;
+			}
+
+			public int getId() {
+				return record;
+			}
+
+			public double getValue(int i) {
+				return i == 0 ? record : -record;
+			}
+
+			public void close() {
+			}
+		};
+	}
+
+	@Test
+	public void open() {
+		final MemoryTrace memory = new MemoryTrace(trace(3000), 2);
+		assertEquals(3000, memory.size());
+		final Trace trace = memory.open();
+		for (int i = 0; i < 3000; i++) {
+			assertTrue(trace.next());
+			assertEquals(i, trace.getId());
+			assertEquals(i, trace.getValue(0), 0.0d);
+			assertEquals(-i, trace.getValue(1), 0.0d);
+		}
+		assertFalse(trace.next());
+	}
+
+	@Test
+	public void maxValues() {
+		assertEquals(5, new MemoryTrace(trace(5), 2, 11).size());
+		assertEquals(2000, new MemoryTrace(trace(2000), 2, 4001).size());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void maxValuesException() {
+		new MemoryTrace(trace(2001), 2, 4001);
+	}
+
+}
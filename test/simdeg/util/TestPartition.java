@@ -0,0 +1,128 @@
+package simdeg.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestPartition {
+
+	private Partition<Integer> partition;
+
+	@Before
+	public void createPartition() {
+		partition = new Partition<Integer>();
+		for (int i = 0; i < 10; i++)
+			partition.add(i);
+	}
+
+	private static Set<Integer> set(Integer... elements) {
+		return new HashSet<Integer>(Arrays.asList(elements));
+	}
+
+	@Test
+	public void add() {
+		assertEquals(10, partition.getAll().size());
+		assertEquals(set(3), partition.getSet(3));
+		assertSame(partition.getSet(3), partition.add(3));
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void getSetException() {
+		partition.getSet(10);
+	}
+
+	@Test
+	public void union() {
+		final Set<Integer> set0 = partition.getSet(0);
+		Partition<Integer>.Group union = partition.union(partition.getSet(0),
+				partition.getSet(1));
+		final Set<Integer> set01 = union;
+		union = partition.union(partition.getSet(2), partition.getSet(1));
+		union = partition.union(union, partition.getSet(3));
+		assertEquals(set(0, 1, 2, 3), union);
+		assertEquals(set(0, 1, 2, 3).hashCode(), union.hashCode());
+		assertTrue(union.contains(2));
+		assertFalse(union.contains(4));
+		for (int i = 0; i < 4; i++)
+			assertSame(union, partition.getSet(i));
+		/* Previous sets are left unchanged */
+		assertEquals(set(0), set0);
+		assertFalse(set0.contains(1));
+		assertEquals(set(0, 1), set01);
+		assertEquals(set(0, 1), new HashSet<Integer>(set01));
+		assertFalse(set01.contains(2));
+	}
+
+	@Test
+	public void split() {
+		Partition<Integer>.Group union = partition.union(partition.getSet(0),
+				partition.getSet(1));
+		union = partition.union(union, partition.getSet(2));
+		final Set<Integer> remaining = partition.split(partition.getSet(1), 1);
+		assertEquals(set(0, 2), remaining);
+		assertEquals(set(1), partition.getSet(1));
+		assertSame(remaining, partition.getSet(0));
+		assertSame(remaining, partition.getSet(2));
+		assertEquals(set(0, 1, 2), union);
+	}
+
+	@Test
+	public void removeAll() {
+		final Set<Integer> union = partition.union(partition.getSet(0),
+				partition.getSet(1));
+		assertEquals(set(1), partition.removeAll(partition.getSet(0), set(0,
+				5)));
+		assertNull(partition.removeAll(partition.getSet(5), set(5)));
+		assertEquals(8, partition.getAll().size());
+		assertFalse(partition.contains(0));
+		assertEquals(set(0, 1), union);
+	}
+
+	@Test
+	public void getLargest() {
+		assertSame(partition.getSet(0), partition.getLargest());
+		final Partition<Integer>.Group union1 = partition.union(partition
+				.getSet(4), partition.getSet(5));
+		final Partition<Integer>.Group union2 = partition.union(partition
+				.getSet(6), partition.getSet(7));
+		/* The oldest set is kept in case of tie */
+		assertSame(union1, partition.getLargest());
+		final Partition<Integer>.Group union3 = partition.union(union2,
+				partition.getSet(8));
+		assertSame(union3, partition.getLargest());
+		partition.split(union3, 8);
+		assertSame(union1, partition.getLargest());
+		partition.removeAll(union1, partition.getAll());
+		assertEquals(set(6, 7), partition.getLargest());
+	}
+
+	@Test
+	public void getLargestEmpty() {
+		for (int i = 0; i < 10; i++)
+			partition.removeAll(partition.getSet(i), set(i));
+		assertNull(partition.getLargest());
+	}
+
+	@Test
+	public void longUnion() {
+		final int size = 1000000;
+		partition = new Partition<Integer>();
+		Partition<Integer>.Group union = partition.add(0);
+		for (int i = 1; i < size; i++)
+			union = partition.union(union, partition.add(i));
+		assertEquals(size, union.size());
+		/* Gathering the elements does not overflow the stack */
+		assertEquals(size, new HashSet<Integer>(union).size());
+	}
+
+}
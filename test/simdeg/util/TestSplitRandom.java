@@ -0,0 +1,55 @@
+package simdeg.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Test that the splittable streams are reproducible, that their values may be
+ * accessed by index and that they are uniformly distributed.
+ */
+public class TestSplitRandom {
+
+	private final static double EPSILON = 1E-2d;
+
+	@Test
+	public void getDouble() {
+		final SplitRandom random = new SplitRandom(42L);
+		final double[] indexed = new double[100];
+		for (int i = indexed.length - 1; i >= 0; i--)
+			indexed[i] = random.getDouble(i);
+		for (int i = 0; i < indexed.length; i++)
+			assertEquals(indexed[i], random.nextDouble(), 0.0d);
+	}
+
+	@Test
+	public void split() {
+		final SplitRandom random1 = new SplitRandom(42L);
+		final SplitRandom random2 = new SplitRandom(42L);
+		final SplitRandom child1 = random1.split();
+		final SplitRandom child2 = random2.split();
+		for (int i = 0; i < 100; i++)
+			assertEquals(child1.nextDouble(), child2.nextDouble(), 0.0d);
+		assertEquals(random1.nextDouble(), random2.nextDouble(), 0.0d);
+		assertTrue(random1.split().nextDouble() != child1.nextDouble());
+	}
+
+	@Test
+	public void uniformity() {
+		final SplitRandom random = new SplitRandom(0L);
+		final int n = 100000;
+		double sum = 0.0d;
+		int low = 0;
+		for (int i = 0; i < n; i++) {
+			final double value = random.split().nextDouble();
+			assertTrue(value >= 0.0d && value < 1.0d);
+			sum += value;
+			if (value < 0.1d)
+				low++;
+		}
+		assertEquals(0.5d, sum / n, EPSILON);
+		assertEquals(0.1d, (double) low / n, EPSILON);
+	}
+
+}
@@ -0,0 +1,75 @@
+package simdeg.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Test that the index of a trace gives the ids in their order of appearance
+ * and the offsets of their first line, and that it is persisted.
+ */
+public class TestTraceIndex {
+
+	private static final String TRACE_FILE = "test.traceIndex";
+
+	@After
+	public void clean() {
+		new File(TRACE_FILE).delete();
+		new File(TRACE_FILE + ".index").delete();
+	}
+
+	private static File write(String content) throws IOException {
+		final FileWriter output = new FileWriter(TRACE_FILE);
+		output.write(content);
+		output.close();
+		return new File(TRACE_FILE);
+	}
+
+	@Test
+	public void getIndex() throws IOException {
+		final File trace = write("# header\n0 5 1.0\n0 3 2.0\n0 5 3.0\n"
+				+ "0 12 4.0\n");
+		final TraceIndex index = TraceIndex.getIndex(trace, 1, 1);
+		assertEquals(3, index.size());
+		assertEquals(5, index.getId(0));
+		assertEquals(3, index.getId(1));
+		assertEquals(12, index.getId(2));
+		assertEquals(-1L, index.getOffset(7));
+		final TraceReader reader = new TraceReader(trace);
+		for (int i = 0; i < index.size(); i++) {
+			reader.seek(index.getOffset(index.getId(i)));
+			reader.skip();
+			assertEquals(index.getId(i), reader.nextInt());
+		}
+		reader.close();
+	}
+
+	@Test
+	public void persistence() throws IOException {
+		final File trace = write("1 0 1\n2 0 1\n1 1 2\n");
+		final TraceIndex index = TraceIndex.getIndex(trace, 0, 0);
+		assertTrue(new File(TRACE_FILE + ".index").exists());
+		final TraceIndex persisted = TraceIndex.getIndex(trace, 0, 0);
+		assertEquals(index.size(), persisted.size());
+		for (int i = 0; i < index.size(); i++) {
+			assertEquals(index.getId(i), persisted.getId(i));
+			assertEquals(index.getOffset(index.getId(i)), persisted
+					.getOffset(index.getId(i)));
+		}
+		/*
+		 * A modified trace is indexed again (its length and its modification
+		 * time are compared, and the time may have a coarse resolution)
+		 */
+		final long modified = trace.lastModified();
+		write("1 0 1\n2 0 1\n3 1 2\n");
+		trace.setLastModified(modified + 2000L);
+		assertEquals(3, TraceIndex.getIndex(trace, 0, 0).size());
+	}
+
+}
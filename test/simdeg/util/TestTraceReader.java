@@ -0,0 +1,126 @@
+package simdeg.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.InputMismatchException;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+/**
+ * Test that the trace reader parses the same values than the standard
+ * methods, including when tokens are split between two buffers.
+ */
+public class TestTraceReader {
+
+	private static final String TRACE_FILE = "test.traceReader";
+
+	@AfterClass
+	public static void clean() {
+		new File(TRACE_FILE).delete();
+	}
+
+	private static File write(String content) throws IOException {
+		final FileWriter output = new FileWriter(TRACE_FILE);
+		output.write(content);
+		output.close();
+		return new File(TRACE_FILE);
+	}
+
+	@Test
+	public void nextInt() throws IOException {
+		final TraceReader reader = new TraceReader(write(" 12\t-7\n+3 "
+				+ Integer.MAX_VALUE + " " + Integer.MIN_VALUE + "\n"), 3);
+		assertEquals(12, reader.nextInt());
+		assertEquals(-7, reader.nextInt());
+		assertEquals(3, reader.nextInt());
+		assertEquals(Integer.MAX_VALUE, reader.nextInt());
+		assertEquals(Integer.MIN_VALUE, reader.nextInt());
+		assertFalse(reader.hasNext());
+		reader.close();
+	}
+
+	@Test
+	public void nextDouble() throws IOException {
+		final Random random = new Random(0L);
+		final double[] values = new double[10000];
+		final StringBuilder content = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			switch (i % 4) {
+			case 0:
+				values[i] = random.nextInt(100000000) / 1000.0d;
+				break;
+			case 1:
+				values[i] = random.nextDouble();
+				break;
+			case 2:
+				values[i] = -random.nextDouble() * 1E300;
+				break;
+			default:
+				values[i] = random.nextInt(1000);
+			}
+			content.append(values[i] + (i % 3 == 0 ? "\n" : "\t"));
+		}
+		content.append("1E3 0.000000000000000000000000123 -0 "
+				+ "12345678901234567890123.5");
+		final TraceReader reader = new TraceReader(write(content.toString()),
+				7);
+		for (double value : values)
+			assertEquals(Double.doubleToLongBits(value), Double
+					.doubleToLongBits(reader.nextDouble()));
+		assertEquals(1E3, reader.nextDouble(), 0.0d);
+		assertEquals(1.23E-25, reader.nextDouble(), 0.0d);
+		assertEquals(Double.doubleToLongBits(-0.0d), Double
+				.doubleToLongBits(reader.nextDouble()));
+		assertEquals(Double.parseDouble("12345678901234567890123.5"), reader
+				.nextDouble(), 0.0d);
+		assertFalse(reader.hasNext());
+		reader.close();
+	}
+
+	@Test
+	public void skipAndNextLine() throws IOException {
+		final TraceReader reader = new TraceReader(
+				write("# header line\n 0\t1\tNULL\t2.5\n3 4 5\n"), 4);
+		reader.nextLine();
+		reader.skip();
+		assertEquals(1, reader.nextInt());
+		reader.skip();
+		assertEquals(2.5d, reader.nextDouble(), 0.0d);
+		reader.nextLine();
+		assertTrue(reader.hasNext());
+		assertEquals(3, reader.nextInt());
+		reader.nextLine();
+		assertFalse(reader.hasNext());
+		reader.close();
+	}
+
+	@Test(expected = InputMismatchException.class)
+	public void nextDoubleException() throws IOException {
+		final TraceReader reader = new TraceReader(write("NULL 1.0"));
+		reader.nextDouble();
+	}
+
+	@Test(expected = InputMismatchException.class)
+	public void nextIntException() throws IOException {
+		final TraceReader reader = new TraceReader(write("1.5"));
+		reader.nextInt();
+	}
+
+	@Test(expected = InputMismatchException.class)
+	public void nonAsciiException() throws IOException {
+		final FileOutputStream output = new FileOutputStream(TRACE_FILE);
+		output.write(new byte[] { '1', '2', (byte) 0xFF, ' ', '3' });
+		output.close();
+		final TraceReader reader = new TraceReader(new File(TRACE_FILE));
+		reader.nextInt();
+	}
+
+}